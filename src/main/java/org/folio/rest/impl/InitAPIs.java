@@ -5,8 +5,15 @@ import java.util.MissingResourceException;
 import org.folio.rest.resource.interfaces.InitAPI;
 import org.folio.services.ConfigurationService;
 import org.folio.services.UserService;
+import org.folio.services.LocalServices;
 import org.folio.services.LogStorageService;
 import org.folio.services.PasswordStorageService;
+import org.folio.util.ConfigCache;
+import org.folio.util.EventLogPartitions;
+import org.folio.util.EventLogQueue;
+import org.folio.util.FailedLoginCounter;
+import org.folio.util.HashExecutor;
+import org.folio.util.LoginThrottle;
 import org.folio.util.ResourceUtil;
 import org.folio.util.WebClientFactory;
 
@@ -30,26 +37,39 @@ public class InitAPIs implements InitAPI {
 
   public void init(Vertx vertx, Context context, Handler<AsyncResult<Boolean>> resultHandler) {
     WebClientFactory.init(vertx);
+    HashExecutor.init(vertx);
+    FailedLoginCounter.init(vertx);
+    EventLogQueue.init(vertx);
+    EventLogPartitions.init(vertx);
+    LoginThrottle.init(vertx);
+    // create it now so that it can be invalidated before the first lookup
+    ConfigCache.get(vertx);
 
     checkResource(CREDENTIAL_SCHEMA_PATH)
     .map(x -> {
-      new ServiceBinder(vertx)
-        .setAddress(PW_CONFIG_PROXY_STORY_ADDRESS)
-        .register(PasswordStorageService.class, PasswordStorageService.create(vertx));
-      new ServiceBinder(vertx)
-        .setAddress(EVENT_CONFIG_PROXY_STORY_ADDRESS)
-        .register(LogStorageService.class, LogStorageService.create(vertx));
-      new ServiceBinder(vertx)
-        .setAddress(EVENT_CONFIG_PROXY_CONFIG_ADDRESS)
-        .register(ConfigurationService.class, ConfigurationService.create(vertx));
-      new ServiceBinder(vertx)
-          .setAddress(MOD_USERS_PROXY_ADDRESS)
-          .register(UserService.class, UserService.create(vertx));
+      // LogStorageService first, the PasswordStorageService uses it
+      register(vertx, EVENT_CONFIG_PROXY_STORY_ADDRESS, LogStorageService.class, LogStorageService.create(vertx));
+      register(vertx, EVENT_CONFIG_PROXY_CONFIG_ADDRESS, ConfigurationService.class,
+          ConfigurationService.create(vertx));
+      register(vertx, PW_CONFIG_PROXY_STORY_ADDRESS, PasswordStorageService.class,
+          PasswordStorageService.create(vertx));
+      register(vertx, MOD_USERS_PROXY_ADDRESS, UserService.class, UserService.create(vertx));
       return true;
     })
     .onComplete(resultHandler::handle);
   }
 
+  /**
+   * Bind the service to the event bus address for clustered callers and register it
+   * for direct calls from this JVM.
+   */
+  private static <T> void register(Vertx vertx, String address, Class<T> serviceInterface, T service) {
+    new ServiceBinder(vertx)
+      .setAddress(address)
+      .register(serviceInterface, service);
+    LocalServices.register(vertx, serviceInterface, service);
+  }
+
   static Future<Void> checkResource(String name) {
     try {
       // works without jar, with jar, and without and with IDEs (Eclipse, ...)
@@ -12,16 +12,19 @@ import static org.folio.util.LoginConfigUtils.VALUE_IS_NOT_FOUND;
 import static org.folio.util.LoginConfigUtils.createFutureResponse;
 import static org.folio.util.LoginConfigUtils.getResponseEntity;
 
+import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
@@ -32,12 +35,18 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.folio.cql2pgjson.exception.QueryValidationException;
 import org.folio.okapi.common.XOkapiHeaders;
 import org.folio.rest.RestVerticle;
+import org.folio.rest.annotations.Stream;
+import org.folio.rest.jaxrs.model.CacheStatistics;
+import org.folio.rest.jaxrs.model.CacheStatisticsCollection;
 import org.folio.rest.jaxrs.model.ConfigResponse;
 import org.folio.rest.jaxrs.model.Credential;
 import org.folio.rest.jaxrs.model.Error;
 import org.folio.rest.jaxrs.model.Errors;
+import org.folio.rest.jaxrs.model.EventLogQueueStatistics;
+import org.folio.rest.jaxrs.model.HttpClientStatistics;
 import org.folio.rest.jaxrs.model.LogEvent;
 import org.folio.rest.jaxrs.model.LogEvents;
 import org.folio.rest.jaxrs.model.LogResponse;
@@ -63,10 +72,23 @@ import org.folio.services.ConfigurationService;
 import org.folio.services.UserService;
 import org.folio.services.LogStorageService;
 import org.folio.services.PasswordStorageService;
-import org.folio.util.AuthUtil;
 import org.folio.util.CookieSameSiteConfig;
+import org.folio.util.CredentialBatch;
+import org.folio.util.CredentialLookup;
+import org.folio.util.EventLogExport;
+import org.folio.util.EventLogQueue;
+import org.folio.util.EventLogUtils;
+import org.folio.util.HashExecutor;
+import org.folio.util.HashExecutorSaturatedException;
 import org.folio.util.LoginAttemptsHelper;
 import org.folio.util.LoginConfigUtils;
+import org.folio.util.LoginThrottle;
+import org.folio.util.PasswordHasher;
+import org.folio.util.PasswordHashers;
+import org.folio.util.SqlStatement;
+import org.folio.util.SqlStatements;
+import org.folio.util.TenantCache;
+import org.folio.util.TenantCaches;
 import org.folio.util.TokenCookieParser;
 import org.folio.util.WebClientFactory;
 import org.folio.util.TokenEndpointNotFoundException;
@@ -79,10 +101,13 @@ import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.http.Cookie;
+import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.client.HttpRequest;
 import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.sqlclient.Tuple;
 
 /**
  * @author kurt
@@ -113,9 +138,13 @@ public class LoginAPI implements Authn {
   public static final String MESSAGE_LOG_EVENT_IS_DISABLED = "For event logging `%s` is disabled";
   private static final String ERROR_EVENT_CONFIG_NOT_FOUND = "Event Config with `%s`: `%s` was not found in the db";
   public static final String MULTIPLE_MATCHING_USERS_LOG = "Multiple matching users username={} userId={}, tenants={}";
+  private static final String DUMMY_USER_ID = "00000000-0000-0000-0000-000000000000";
   private static final String TOKEN_SIGN_ENDPOINT = "/token/sign";
   private static final String TOKEN_SIGN_ENDPOINT_LEGACY = "/token";
   private static final String TOKEN_REFRESH_ENDPOINT = "/token/refresh";
+  private static final String RETRY_AFTER = "Retry-After";
+  private static final String HASHING_UNAVAILABLE = "Too many concurrent password checks, please retry later";
+  private static final String TOO_MANY_LOGIN_ATTEMPTS = "Too many login attempts, please retry later";
 
   /**
    * A time in the past which can be used in the Expires cookie attribute.
@@ -143,13 +172,14 @@ public class LoginAPI implements Authn {
   public static final String TOKEN_LOGOUT_ENDPOINT = "/token/invalidate";
   public static final String TOKEN_LOGOUT_ALL_ENDPOINT = "/token/invalidate-all";
 
-  private final AuthUtil authUtil = new AuthUtil();
   private boolean suppressErrorResponse = false;
   private boolean requireActiveUser = Boolean.parseBoolean(MODULE_SPECIFIC_ARGS
       .getOrDefault("require.active", "true"));
 
   private static final Logger logger = LogManager.getLogger(LoginAPI.class);
   private static final String DUAL_MSG = "{}: {}";
+  /** the running credential batches by RMB stream id */
+  private static final Map<String, CredentialBatch> credentialBatches = new ConcurrentHashMap<>();
 
   private String vTenantId;
   private LogStorageService logStorageService;
@@ -167,10 +197,10 @@ public class LoginAPI implements Authn {
   }
 
   private void initService(Vertx vertx) {
-    passwordStorageService = PasswordStorageService.createProxy(vertx, PW_CONFIG_PROXY_STORY_ADDRESS);
-    logStorageService = LogStorageService.createProxy(vertx, EVENT_CONFIG_PROXY_STORY_ADDRESS);
-    configurationService = ConfigurationService.createProxy(vertx, EVENT_CONFIG_PROXY_CONFIG_ADDRESS);
-    userService = UserService.createProxy(vertx, MOD_USERS_PROXY_ADDRESS);
+    passwordStorageService = PasswordStorageService.getInstance(vertx, PW_CONFIG_PROXY_STORY_ADDRESS);
+    logStorageService = LogStorageService.getInstance(vertx, EVENT_CONFIG_PROXY_STORY_ADDRESS);
+    configurationService = ConfigurationService.getInstance(vertx, EVENT_CONFIG_PROXY_CONFIG_ADDRESS);
+    userService = UserService.getInstance(vertx, MOD_USERS_PROXY_ADDRESS);
     loginAttemptsHelper = new LoginAttemptsHelper(vertx);
   }
 
@@ -542,7 +572,20 @@ public class LoginAPI implements Authn {
             .respond400WithTextPlain("You must provide a password")));
         return;
       }
-      handleLogin(entity, tenantId, okapiHeaders, asyncResultHandler)
+      int retryAfter = throttle(tenantId, entity, okapiHeaders, userAgent, xForwardedFor);
+      if (retryAfter > 0) {
+        asyncResultHandler.handle(Future.succeededFuture(throttledResponse(retryAfter)));
+        return;
+      }
+      // The user usually lives in the tenant of the request. Start the user lookup and,
+      // if the userId is known, the credential fetch in that tenant while /user-tenants
+      // is running, and only redo them if /user-tenants resolves to a different tenant.
+      boolean speculate = entity.getTenant() == null || entity.getTenant().equals(tenantId);
+      Future<JsonObject> speculativeUser = speculate
+          ? verifyUser(entity, tenantId, okapiURL, requestToken) : null;
+      Future<List<Credential>> speculativeCredentials = speculate && entity.getUserId() != null
+          ? fetchCredentials(vertxContext, tenantId, entity.getUserId()) : null;
+      timed("user-tenants", tenantId, handleLogin(entity, tenantId, okapiHeaders, asyncResultHandler))
         .onComplete(ar -> {
           if (ar.failed()) {
             // asyncResultHandler was updated in handleCrossTenantLogin()
@@ -550,23 +593,23 @@ public class LoginAPI implements Authn {
           }
           String newTenantId = ar.result();
           logger.info("Logging to tenantId: {}", newTenantId);
-          Future<JsonObject> userVerified;
-          if (entity.getUserId() != null && !requireActiveUser) {
-            logger.debug("No need to look up user id");
-            userVerified = Future.succeededFuture(new JsonObject()
-                .put("id", entity.getUserId()).put(ACTIVE, true)
-                .put(USERNAME, "__undefined__"));
+          boolean reuse = speculate && newTenantId.equals(tenantId);
+          Future<JsonObject> userVerified = reuse
+              ? speculativeUser : verifyUser(entity, newTenantId, okapiURL, requestToken);
+          Future<List<Credential>> credentials;
+          if (entity.getUserId() != null) {
+            credentials = reuse
+                ? speculativeCredentials : fetchCredentials(vertxContext, newTenantId, entity.getUserId());
           } else {
-            logger.debug("Need to look up user id");
-            if (entity.getUserId() != null) {
-              userVerified = lookupUser(null, entity.getUserId(), newTenantId, okapiURL, requestToken);
-            } else {
-              userVerified = lookupUser(entity.getUsername(), null, newTenantId, okapiURL, requestToken);
-            }
+            // Use a dummy id as fall-back to always make a credential lookup, otherwise the response time
+            // reveals whether the user exists:
+            // https://cheatsheetseries.owasp.org/cheatsheets/Authentication_Cheat_Sheet.html#authentication-responses
+            credentials = userVerified.transform(verifyResult -> fetchCredentials(vertxContext, newTenantId,
+                verifyResult.succeeded() ? verifyResult.result().getString("id", DUMMY_USER_ID) : DUMMY_USER_ID));
           }
-          userVerified.onComplete(verifyResult -> loginAfterUserVerified(verifyResult, entity, newTenantId, okapiURL,
-              requestToken, userAgent, xForwardedFor, okapiHeaders, asyncResultHandler, vertxContext,
-              tokenSignEndpoint));
+          Future.join(userVerified, credentials).onComplete(x -> loginAfterUserVerified(userVerified, credentials,
+              entity, newTenantId, okapiURL, requestToken, userAgent, xForwardedFor, okapiHeaders,
+              asyncResultHandler, tokenSignEndpoint));
         })
         .onFailure(e -> asyncResultHandler.handle(Future.succeededFuture(PostAuthnLoginResponse.respond500WithTextPlain(e.getMessage()))));
     } catch(Exception e) {
@@ -575,6 +618,41 @@ public class LoginAPI implements Authn {
     }
   }
 
+  private Future<JsonObject> verifyUser(LoginCredentials entity, String tenantId, String okapiURL,
+      String requestToken) {
+    if (entity.getUserId() != null && !requireActiveUser) {
+      logger.debug("No need to look up user id");
+      return Future.succeededFuture(new JsonObject()
+          .put("id", entity.getUserId()).put(ACTIVE, true)
+          .put(USERNAME, "__undefined__"));
+    }
+    logger.debug("Need to look up user id");
+    Future<JsonObject> userVerified;
+    if (entity.getUserId() != null) {
+      userVerified = lookupUser(null, entity.getUserId(), tenantId, okapiURL, requestToken);
+    } else {
+      userVerified = lookupUser(entity.getUsername(), null, tenantId, okapiURL, requestToken);
+    }
+    return timed("user lookup", tenantId, userVerified);
+  }
+
+  private Future<List<Credential>> fetchCredentials(Context vertxContext, String tenantId, String userId) {
+    return timed("credentials", tenantId,
+        CredentialLookup.findByUserId(vertxContext.owner(), tenantId, userId));
+  }
+
+  /**
+   * Debug log of the duration of a login stage.
+   */
+  private static <T> Future<T> timed(String stage, String tenantId, Future<T> future) {
+    if (!logger.isDebugEnabled()) {
+      return future;
+    }
+    long start = System.nanoTime();
+    return future.onComplete(x -> logger.debug("Login stage {} for tenant {} took {} ms", stage, tenantId,
+        (System.nanoTime() - start) / 1_000_000));
+  }
+
   private Future<String> handleLogin(LoginCredentials credentials, String tenantId,
                                      Map<String, String> okapiHeaders,
                                      Handler<AsyncResult<Response>> asyncResultHandler) {
@@ -625,120 +703,174 @@ public class LoginAPI implements Authn {
     promise.fail(cause);
   }
 
-  private void loginAfterUserVerified(AsyncResult<JsonObject> verifyResult, LoginCredentials entity, String tenantId,
-      String okapiURL, String requestToken, String userAgent, String xForwardedFor, Map<String, String> okapiHeaders,
-      Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext, String tokenSignEndpoint) {
+  private void loginAfterUserVerified(Future<JsonObject> verifyResult, Future<List<Credential>> getReply,
+      LoginCredentials entity, String tenantId, String okapiURL, String requestToken, String userAgent,
+      String xForwardedFor, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler,
+      String tokenSignEndpoint) {
 
     var userObject = verifyResult.succeeded() ? verifyResult.result() : new JsonObject();
-    // Use a dummy id as fall-back to always make a user lookup, otherwise the response time
-    // reveals whether the user exists:
-    // https://cheatsheetseries.owasp.org/cheatsheets/Authentication_Cheat_Sheet.html#authentication-responses
-    var userId = userObject.getString("id", "00000000-0000-0000-0000-000000000000");
-
-    Criteria useridCrit = new Criteria();
-    useridCrit.addField(CREDENTIAL_USERID_FIELD);
-    useridCrit.setOperation("=");
-    useridCrit.setVal(userId);
-    PostgresClient.getInstance(vertxContext.owner(), tenantId)
-    .get(TABLE_NAME_CREDENTIALS, Credential.class, new Criterion(useridCrit), true)
-    .onComplete(getReply -> {
-
-      if (verifyResult.failed()) {
-        String errMsg = "Error verifying user existence: " + verifyResult
-            .cause().getLocalizedMessage();
-        logger.error(errMsg);
-        asyncResultHandler.handle(LOGIN_FAILED_FUTURE);
-        return;
-      }
-      if (!userObject.containsKey("id")) {
-        logger.error("No 'id' key in returned user object");
-        asyncResultHandler.handle(INTERNAL_ERROR_FUTURE);
-        return;
-      }
-      if (requireActiveUser) {
-        boolean foundActive = userObject.containsKey(ACTIVE) && userObject.getBoolean(ACTIVE);
-        if (!foundActive) {
-          logger.error("User could not be verified as active");
-          asyncResultHandler.handle(LOGIN_FAILED_FUTURE);
-          return;
-        }
-      }
-      if (getReply.failed()) {
-        logger.error("Error in postgres get operation: {}", getReply.cause().getLocalizedMessage());
-        asyncResultHandler.handle(INTERNAL_ERROR_FUTURE);
-        return;
-      }
-      List<Credential> credList = getReply.result().getResults();
-      if (credList.isEmpty()) {
-        logger.error("No matching credentials found for userid {}", userId);
+    var userId = userObject.getString("id", DUMMY_USER_ID);
+
+
+    if (verifyResult.failed()) {
+      String errMsg = "Error verifying user existence: " + verifyResult
+          .cause().getLocalizedMessage();
+      logger.error(errMsg);
+      asyncResultHandler.handle(LOGIN_FAILED_FUTURE);
+      return;
+    }
+    if (!userObject.containsKey("id")) {
+      logger.error("No 'id' key in returned user object");
+      asyncResultHandler.handle(INTERNAL_ERROR_FUTURE);
+      return;
+    }
+    if (requireActiveUser) {
+      boolean foundActive = userObject.containsKey(ACTIVE) && userObject.getBoolean(ACTIVE);
+      if (!foundActive) {
+        logger.error("User could not be verified as active");
         asyncResultHandler.handle(LOGIN_FAILED_FUTURE);
         return;
       }
-      Credential userCred = credList.get(0);
-      if (userCred.getHash() == null || userCred.getSalt() == null) {
-        String message = "Error retrieving stored hash and salt from credentials";
-        logger.error(message);
-        asyncResultHandler.handle(INTERNAL_ERROR_FUTURE);
+    }
+    if (getReply.failed()) {
+      logger.error("Error in postgres get operation: {}", getReply.cause().getLocalizedMessage());
+      asyncResultHandler.handle(INTERNAL_ERROR_FUTURE);
+      return;
+    }
+    List<Credential> credList = getReply.result();
+    if (credList.isEmpty()) {
+      logger.error("No matching credentials found for userid {}", userId);
+      asyncResultHandler.handle(LOGIN_FAILED_FUTURE);
+      return;
+    }
+    Credential userCred = credList.get(0);
+    if (userCred.getHash() == null || userCred.getSalt() == null) {
+      String message = "Error retrieving stored hash and salt from credentials";
+      logger.error(message);
+      asyncResultHandler.handle(INTERNAL_ERROR_FUTURE);
+      return;
+    }
+    PasswordHasher hasher;
+    try {
+      hasher = PasswordHashers.forId(userCred.getHashAlgorithm());
+    } catch (IllegalArgumentException e) {
+      logger.error("Credential of userid {}: {}", userId, e.getMessage());
+      asyncResultHandler.handle(INTERNAL_ERROR_FUTURE);
+      return;
+    }
+    hashExecutor().execute(() -> hasher.verify(entity.getPassword(), userCred.getSalt(), userCred.getHash()))
+    .onComplete(hashResult -> {
+      if (hashResult.failed()) {
+        asyncResultHandler.handle(Future.succeededFuture(hashFailureResponse(hashResult.cause())));
         return;
       }
-      String testHash = authUtil.calculateHash(entity.getPassword(), userCred.getSalt());
-      if (! userCred.getHash().equals(testHash)) {
+      if (! hashResult.result()) {
         logger.error("Password does not match for userid {}", userId);
-        asyncResultHandler.handle(LOGIN_FAILED_FUTURE);
         Map<String, String> requestHeaders = createRequestHeader(okapiHeaders, userAgent, xForwardedFor);
-        loginAttemptsHelper.onLoginFailAttemptHandler(userObject, requestHeaders);
+        // respond after the failed login has been recorded, like a successful login
+        loginAttemptsHelper.onLoginFailAttemptHandler(userObject, requestHeaders)
+          .onComplete(x -> asyncResultHandler.handle(LOGIN_FAILED_FUTURE));
         return;
       }
+      rehashInBackground(userCred, entity.getPassword(), tenantId, okapiURL, requestToken);
+      loginAfterPasswordVerified(userObject, tenantId, okapiURL, requestToken, userAgent, xForwardedFor,
+          okapiHeaders, asyncResultHandler, tokenSignEndpoint);
+    });
+  }
 
-      String sub;
-      if (userObject.containsKey(USERNAME)) {
-        sub = userObject.getString(USERNAME);
-      } else {
-        sub = userObject.getString("id");
-      }
-      JsonObject payload = new JsonObject();
-      payload.put("sub", sub);
-      if (!userObject.isEmpty()) {
-        payload.put("user_id", userObject.getString("id"));
-      }
-      Future<JsonObject> fetchTokenFuture;
-      String fetchTokenFlag = RestVerticle.MODULE_SPECIFIC_ARGS.get("fetch.token");
-      if (fetchTokenFlag != null && fetchTokenFlag.equals("no")) {
-        fetchTokenFuture = Future.succeededFuture();
-      } else {
-        fetchTokenFuture = fetchSignToken(payload, tenantId, okapiURL, requestToken, tokenSignEndpoint);
+  /**
+   * Upgrade the stored credential to the target hash profile of the tenant if it uses
+   * a different profile. This doesn't delay the login, failures are only logged.
+   */
+  private void rehashInBackground(Credential userCred, String password, String tenantId,
+      String okapiURL, String requestToken) {
+
+    PasswordHashers.getTarget(vertx, okapiURL, requestToken, tenantId)
+    .compose(target -> {
+      if (!PasswordHashers.needsRehash(userCred.getHashAlgorithm(), target)) {
+        return Future.<Void>succeededFuture();
       }
+      String salt = target.getSalt();
+      return hashExecutor().execute(() -> target.calculateHash(password, salt))
+          .compose(hash -> {
+            Credential newCred = JsonObject.mapFrom(userCred).mapTo(Credential.class)
+                .withSalt(salt)
+                .withHash(hash)
+                .withHashAlgorithm(target.getId());
+            return updateCredentialIfUnchanged(tenantId, userCred.getHash(), newCred);
+          });
+    })
+    .onSuccess(x -> logger.debug("Password hash profile of userid {} is up to date", userCred.getUserId()))
+    .onFailure(e -> logger.warn("Rehash of password failed for userid {}: {}",
+        userCred.getUserId(), e.getMessage(), e));
+  }
 
-      fetchTokenFuture.onComplete(fetchTokenRes -> {
-        if (fetchTokenFuture.failed()) {
-          if (fetchTokenFuture.cause() instanceof TokenEndpointNotFoundException) {
-            var msg = fetchTokenFuture.cause().getLocalizedMessage();
-            logger.error(msg, fetchTokenFuture.cause());
-            asyncResultHandler.handle(Future.succeededFuture(PostAuthnLoginResponse.respond404WithTextPlain("Not found")));
-          } else {
-            String errMsg = "Error fetching token: " + fetchTokenFuture.cause().getLocalizedMessage();
-            logger.error(errMsg, fetchTokenFuture.cause());
-            asyncResultHandler.handle(Future.succeededFuture(PostAuthnLoginResponse.respond500WithTextPlain(getErrorResponse(errMsg))));
-          }
+  /**
+   * Replace hash, salt and hash algorithm of the credential only if it still has the old hash.
+   * A concurrent password change wins over the rehash.
+   */
+  private Future<Void> updateCredentialIfUnchanged(String tenantId, String oldHash, Credential newCred) {
+    var hash = new JsonObject()
+        .put("hash", newCred.getHash())
+        .put("salt", newCred.getSalt())
+        .put("hashAlgorithm", newCred.getHashAlgorithm());
+    return SqlStatements.execute(vertx, tenantId, SqlStatement.CREDENTIAL_REHASH,
+            Tuple.of(hash, UUID.fromString(newCred.getId()), oldHash))
+        .mapEmpty();
+  }
+
+  private void loginAfterPasswordVerified(JsonObject userObject, String tenantId, String okapiURL,
+      String requestToken, String userAgent, String xForwardedFor, Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler, String tokenSignEndpoint) {
+
+    String sub;
+    if (userObject.containsKey(USERNAME)) {
+      sub = userObject.getString(USERNAME);
+    } else {
+      sub = userObject.getString("id");
+    }
+    JsonObject payload = new JsonObject();
+    payload.put("sub", sub);
+    if (!userObject.isEmpty()) {
+      payload.put("user_id", userObject.getString("id"));
+    }
+    Future<JsonObject> fetchTokenFuture;
+    String fetchTokenFlag = RestVerticle.MODULE_SPECIFIC_ARGS.get("fetch.token");
+    if (fetchTokenFlag != null && fetchTokenFlag.equals("no")) {
+      fetchTokenFuture = Future.succeededFuture();
+    } else {
+      fetchTokenFuture = fetchSignToken(payload, tenantId, okapiURL, requestToken, tokenSignEndpoint);
+    }
+
+    fetchTokenFuture.onComplete(fetchTokenRes -> {
+      if (fetchTokenFuture.failed()) {
+        if (fetchTokenFuture.cause() instanceof TokenEndpointNotFoundException) {
+          var msg = fetchTokenFuture.cause().getLocalizedMessage();
+          logger.error(msg, fetchTokenFuture.cause());
+          asyncResultHandler.handle(Future.succeededFuture(PostAuthnLoginResponse.respond404WithTextPlain("Not found")));
         } else {
-          // After successful login reset login attempts counter.
-          Map<String, String> requestHeaders = createRequestHeader(okapiHeaders, userAgent, xForwardedFor);
-          loginAttemptsHelper.onLoginSuccessAttemptHandler(userObject, requestHeaders)
-              .onComplete(reply -> {
-                if (reply.failed()) {
-                  asyncResultHandler.handle(INTERNAL_ERROR_FUTURE);
-                  return;
-                }
-                Response response;
-                if (usesTokenSignLegacy(tokenSignEndpoint)) {
-                  response = tokenResponseLegacy(fetchTokenFuture.result());
-                } else {
-                  response = tokenResponse(fetchTokenFuture.result(), okapiURL);
-                }
-                asyncResultHandler.handle(Future.succeededFuture(response));
-              });
+          String errMsg = "Error fetching token: " + fetchTokenFuture.cause().getLocalizedMessage();
+          logger.error(errMsg, fetchTokenFuture.cause());
+          asyncResultHandler.handle(Future.succeededFuture(PostAuthnLoginResponse.respond500WithTextPlain(getErrorResponse(errMsg))));
         }
-      });
+      } else {
+        // After successful login reset login attempts counter.
+        Map<String, String> requestHeaders = createRequestHeader(okapiHeaders, userAgent, xForwardedFor);
+        loginAttemptsHelper.onLoginSuccessAttemptHandler(userObject, requestHeaders)
+            .onComplete(reply -> {
+              if (reply.failed()) {
+                asyncResultHandler.handle(INTERNAL_ERROR_FUTURE);
+                return;
+              }
+              Response response;
+              if (usesTokenSignLegacy(tokenSignEndpoint)) {
+                response = tokenResponseLegacy(fetchTokenFuture.result());
+              } else {
+                response = tokenResponse(fetchTokenFuture.result(), okapiURL);
+              }
+              asyncResultHandler.handle(Future.succeededFuture(response));
+            });
+      }
     });
   }
 
@@ -807,28 +939,31 @@ public class LoginAPI implements Authn {
                                     CREDENTIAL_USERID_FIELD, userId.toString(), message))));
                       } else {
                         //Now we can create a new Credential
-                        Credential credential = new Credential();
-                        credential.setId(UUID.randomUUID().toString());
-                        credential.setUserId(userId.toString());
-                        credential.setSalt(authUtil.getSalt());
-                        credential.setHash(authUtil.calculateHash(entity.getPassword(),
-                            credential.getSalt()));
-                        //And save it
-                        PostgresClient pgClient = PostgresClient.getInstance(
-                            vertxContext.owner(), tenantId);
-                        pgClient.save(TABLE_NAME_CREDENTIALS, credential.getId(),
-                            credential, saveReply -> {
-                              if (saveReply.failed()) {
-                                String message = "Saving record failed: "
-                                    + saveReply.cause().getLocalizedMessage();
-                                logger.error(message, saveReply.cause());
-                                asyncResultHandler.handle(Future.succeededFuture(
-                                    PostAuthnCredentialsResponse.respond500WithTextPlain(message)));
-                              } else {
-                                asyncResultHandler.handle(Future.succeededFuture(
-                                    PostAuthnCredentialsResponse.respond201()));
-                              }
-                            });
+                        makeCredentialObject(UUID.randomUUID().toString(), userId.toString(),
+                            entity.getPassword(), tenantId, okapiHeaders).onComplete(credReply -> {
+                          if (credReply.failed()) {
+                            asyncResultHandler.handle(Future.succeededFuture(
+                                hashFailureResponse(credReply.cause())));
+                            return;
+                          }
+                          Credential credential = credReply.result();
+                          //And save it
+                          PostgresClient pgClient = PostgresClient.getInstance(
+                              vertxContext.owner(), tenantId);
+                          pgClient.save(TABLE_NAME_CREDENTIALS, credential.getId(),
+                              credential, saveReply -> {
+                                if (saveReply.failed()) {
+                                  String message = "Saving record failed: "
+                                      + saveReply.cause().getLocalizedMessage();
+                                  logger.error(message, saveReply.cause());
+                                  asyncResultHandler.handle(Future.succeededFuture(
+                                      PostAuthnCredentialsResponse.respond500WithTextPlain(message)));
+                                } else {
+                                  asyncResultHandler.handle(Future.succeededFuture(
+                                      PostAuthnCredentialsResponse.respond201()));
+                                }
+                              });
+                        });
                       }
                     }
                   } catch (Exception e) {
@@ -852,6 +987,54 @@ public class LoginAPI implements Authn {
     }
   }
 
+  /**
+   * Import the NDJSON body chunk by chunk as RMB streams it and write the result of each
+   * record to the response of the routing context; the asyncResultHandler is only called
+   * if the batch fails before the first result has been written.
+   */
+  @Stream
+  @Override
+  public void postAuthnCredentialsBatch(InputStream entity, RoutingContext routingContext,
+      Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+
+    String streamId = okapiHeaders.get(RestVerticle.STREAM_ID);
+    try {
+      if (okapiHeaders.containsKey(RestVerticle.STREAM_ABORT)) {
+        credentialBatches.remove(streamId);
+        return;
+      }
+      CredentialBatch batch = credentialBatches.computeIfAbsent(streamId, id -> {
+        String tenantId = getTenant(okapiHeaders);
+        return new CredentialBatch(vertx, tenantId,
+            PasswordHashers.getTarget(vertx, okapiHeaders.get(XOkapiHeaders.URL),
+                okapiHeaders.get(XOkapiHeaders.TOKEN), tenantId),
+            routingContext.request(), routingContext.response());
+      });
+      if (!okapiHeaders.containsKey(RestVerticle.STREAM_COMPLETE)) {
+        batch.handle(Buffer.buffer(entity.readAllBytes()));
+        return;
+      }
+      credentialBatches.remove(streamId);
+      HttpServerResponse response = routingContext.response();
+      batch.end().onFailure(e -> {
+        logger.error("Credential batch failed: {}", e.getMessage(), e);
+        if (!response.headWritten()) {
+          asyncResultHandler.handle(Future.succeededFuture(
+              PostAuthnCredentialsBatchResponse.respond500WithTextPlain(e.getMessage())));
+        } else if (!response.closed()) {
+          // an incomplete chunked response must not look like a complete result
+          response.reset();
+        }
+      });
+    } catch (Exception e) {
+      credentialBatches.remove(streamId);
+      logger.error(e.getMessage(), e);
+      asyncResultHandler.handle(Future.succeededFuture(
+          PostAuthnCredentialsBatchResponse.respond500WithTextPlain(INTERNAL_ERROR)));
+    }
+  }
+
   @Override
   public void deleteAuthnCredentials(String userId, Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
@@ -1033,8 +1216,8 @@ public class LoginAPI implements Authn {
   }
 
   @Override
-  public void getAuthnLogEvents(int limit, int offset, String query,
-      Map<String, String> requestHeaders,
+  public void getAuthnLogEvents(int limit, int offset, String query, String cursor, String totalRecords,
+      String from, String to, Map<String, String> requestHeaders,
       Handler<AsyncResult<Response>> asyncHandler, Context context) {
     try {
       configurationService.getEnableConfigurations(vTenantId, LoginConfigUtils.encodeJsonHeaders(requestHeaders), serviceHandler -> {
@@ -1051,10 +1234,15 @@ public class LoginAPI implements Authn {
               return;
             }
 
-            logStorageService.findAllEvents(vTenantId, limit, offset, query,
+            logStorageService.findAllEvents(vTenantId, limit, offset, query, cursor, totalRecords, from, to,
                 storageHandler -> {
                   if (storageHandler.failed()) {
                     String errorMessage = storageHandler.cause().getMessage();
+                    if (storageHandler.cause() instanceof IllegalArgumentException) {
+                      asyncHandler.handle(createFutureResponse(
+                          GetAuthnLogEventsResponse.respond400WithTextPlain(errorMessage)));
+                      return;
+                    }
                     asyncHandler.handle(createFutureResponse(
                         GetAuthnLogEventsResponse.respond500WithTextPlain(errorMessage)));
                     return;
@@ -1072,6 +1260,58 @@ public class LoginAPI implements Authn {
     }
   }
 
+  /**
+   * Stream the events to the response of the routing context; the asyncHandler
+   * is only called if the export fails before it starts.
+   */
+  @Override
+  public void getAuthnLogEventsExport(String query, String from, String to, String format,
+      RoutingContext routingContext, Map<String, String> requestHeaders,
+      Handler<AsyncResult<Response>> asyncHandler, Context context) {
+    try {
+      EventLogExport export;
+      try {
+        export = new EventLogExport(vTenantId, query, from, to, format);
+      } catch (IllegalArgumentException | QueryValidationException e) {
+        asyncHandler.handle(createFutureResponse(
+            GetAuthnLogEventsExportResponse.respond400WithTextPlain(e.getMessage())));
+        return;
+      }
+      configurationService.getEnableConfigurations(vTenantId, LoginConfigUtils.encodeJsonHeaders(requestHeaders), serviceHandler -> {
+            if (serviceHandler.failed()) {
+              String errorMessage = serviceHandler.cause().getMessage();
+              asyncHandler.handle(createFutureResponse(
+                  GetAuthnLogEventsExportResponse.respond500WithTextPlain(errorMessage)));
+              return;
+            }
+            ConfigResponse responseEntity = getResponseEntity(serviceHandler, ConfigResponse.class);
+            if (!responseEntity.getEnabled()) {
+              asyncHandler.handle(createFutureResponse(
+                  GetAuthnLogEventsExportResponse.respond204WithTextPlain(MESSAGE_LOG_CONFIGURATION_IS_DISABLED)));
+              return;
+            }
+
+            HttpServerResponse response = routingContext.response();
+            export.writeTo(PostgresClient.getInstance(vertx, vTenantId), response)
+                .onFailure(e -> {
+                  logger.error("Exporting the event log failed: {}", e.getMessage(), e);
+                  if (!response.headWritten()) {
+                    asyncHandler.handle(createFutureResponse(
+                        GetAuthnLogEventsExportResponse.respond500WithTextPlain(e.getMessage())));
+                  } else if (!response.closed()) {
+                    // an incomplete chunked response must not look like a complete export
+                    response.reset();
+                  }
+                });
+          }
+      );
+    } catch (Exception ex) {
+      String errorMessage = String.format(ERROR_RUNNING_VERTICLE, "getAuthnLogEventsExport", ex.getMessage());
+      logger.error(errorMessage, ex);
+      asyncHandler.handle(createFutureResponse(GetAuthnLogEventsExportResponse.respond500WithTextPlain(errorMessage)));
+    }
+  }
+
   @Override
   public void postAuthnLogEvents(LogEvent logEvent, Map<String, String> requestHeaders,
       Handler<AsyncResult<Response>> asyncHandler, Context context) {
@@ -1168,6 +1408,108 @@ public class LoginAPI implements Authn {
     }
   }
 
+  @Override
+  public void getAuthnCache(Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    try {
+      List<CacheStatistics> caches = TenantCaches.getAll(vertx).stream()
+          .sorted(Comparator.comparing(TenantCache::getName))
+          .map(cache -> {
+            var stats = cache.stats();
+            return new CacheStatistics()
+                .withName(cache.getName())
+                .withTtlSeconds((int) cache.getTtlSeconds())
+                .withSize(cache.size())
+                .withHitCount(stats.hitCount())
+                .withMissCount(stats.missCount())
+                .withEvictionCount(stats.evictionCount());
+          })
+          .collect(toList());
+      asyncResultHandler.handle(Future.succeededFuture(GetAuthnCacheResponse.respond200WithApplicationJson(
+          new CacheStatisticsCollection().withCaches(caches).withTotalRecords(caches.size()))));
+    } catch (Exception e) {
+      logger.error(e.getMessage(), e);
+      asyncResultHandler.handle(Future.succeededFuture(
+          GetAuthnCacheResponse.respond500WithTextPlain(INTERNAL_ERROR)));
+    }
+  }
+
+  @Override
+  public void getAuthnHttpClient(Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    try {
+      var options = WebClientFactory.getWebClientOptions(vertx);
+      var stats = WebClientFactory.getStats(vertx);
+      var response = new HttpClientStatistics()
+          .withProtocolVersion(options.getProtocolVersion().alpnName())
+          .withMaxPoolSize(options.getMaxPoolSize())
+          .withMaxWaitQueueSize(options.getMaxWaitQueueSize())
+          .withQueued(stats.getQueued())
+          .withInUse(stats.getInUse())
+          .withRequests(stats.getRequests())
+          .withFailures(stats.getFailures())
+          .withWaitMillis(stats.getWaitMillis())
+          .withResponseMillis(stats.getResponseMillis());
+      asyncResultHandler.handle(Future.succeededFuture(GetAuthnHttpClientResponse.respond200WithApplicationJson(response)));
+    } catch (Exception e) {
+      logger.error(e.getMessage(), e);
+      asyncResultHandler.handle(Future.succeededFuture(
+          GetAuthnHttpClientResponse.respond500WithTextPlain(INTERNAL_ERROR)));
+    }
+  }
+
+  @Override
+  public void getAuthnLogQueue(Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    try {
+      var queue = EventLogQueue.get(vertx);
+      var response = new EventLogQueueStatistics()
+          .withEnabled(queue != null)
+          .withSize(0)
+          .withQueued(0L)
+          .withWritten(0L)
+          .withDropped(0L)
+          .withFailed(0L)
+          .withBatches(0L);
+      if (queue != null) {
+        response
+            .withQueueSize(queue.getQueueSize())
+            .withBatchSize(queue.getBatchSize())
+            .withOverflow(queue.getOverflow())
+            .withSize(queue.size())
+            .withQueued(queue.getQueued())
+            .withWritten(queue.getWritten())
+            .withDropped(queue.getDropped())
+            .withFailed(queue.getFailed())
+            .withBatches(queue.getBatches());
+      }
+      asyncResultHandler.handle(Future.succeededFuture(GetAuthnLogQueueResponse.respond200WithApplicationJson(response)));
+    } catch (Exception e) {
+      logger.error(e.getMessage(), e);
+      asyncResultHandler.handle(Future.succeededFuture(
+          GetAuthnLogQueueResponse.respond500WithTextPlain(INTERNAL_ERROR)));
+    }
+  }
+
+  @Override
+  public void deleteAuthnCacheByName(String name, Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    try {
+      TenantCache<?> cache = TenantCaches.find(vertx, name);
+      if (cache == null) {
+        asyncResultHandler.handle(Future.succeededFuture(
+            DeleteAuthnCacheByNameResponse.respond404WithTextPlain("Cache not found: " + name)));
+        return;
+      }
+      cache.invalidateTenant(getTenant(okapiHeaders));
+      asyncResultHandler.handle(Future.succeededFuture(DeleteAuthnCacheByNameResponse.respond204()));
+    } catch (Exception e) {
+      logger.error(e.getMessage(), e);
+      asyncResultHandler.handle(Future.succeededFuture(
+          DeleteAuthnCacheByNameResponse.respond500WithTextPlain(INTERNAL_ERROR)));
+    }
+  }
+
   @Override
   public void getAuthnCredentialsExistence(String userId, Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler,
@@ -1253,6 +1595,11 @@ public class LoginAPI implements Authn {
           checkValidLogin(userEntity.getString("id"), entity.getPassword(),
               tenantId, vertxContext).onComplete(checkLoginResult -> {
             if (checkLoginResult.failed()) {
+              if (checkLoginResult.cause() instanceof HashExecutorSaturatedException) {
+                asyncResultHandler.handle(Future.succeededFuture(
+                    hashFailureResponse(checkLoginResult.cause())));
+                return;
+              }
               String message = checkLoginResult.cause().getLocalizedMessage();
               logger.error(message);
               asyncResultHandler.handle(Future.succeededFuture(
@@ -1261,31 +1608,33 @@ public class LoginAPI implements Authn {
               asyncResultHandler.handle(Future.succeededFuture(
                   PostAuthnUpdateResponse.respond401WithTextPlain("Invalid credentials")));
             } else { //Password checks out, we can proceed
-              Credential newCred = makeCredentialObject(null, userEntity.getString("id"),
-                  entity.getNewPassword());
-
-              Map<String, String> requestHeaders = createRequestHeader(okapiHeaders, userAgent, xForwardedFor);
-              passwordStorageService.updateCredential(JsonObject.mapFrom(newCred), LoginConfigUtils.encodeJsonHeaders(requestHeaders),
-                  updateCredResult -> {
-                    if (updateCredResult.failed()) {
-                      String message = updateCredResult.cause().getLocalizedMessage();
-                      logger.error(message);
-                      asyncResultHandler.handle(Future.succeededFuture(
-                          PostAuthnUpdateResponse.respond500WithTextPlain(message)));
-                    } else {
-                      // after succesfull change password skip login attempts counter
-                      loginAttemptsHelper.onLoginSuccessAttemptHandler(userEntity, requestHeaders)
-                          .onComplete(event -> {
-                            if (event.failed()) {
-                              asyncResultHandler.handle(Future.succeededFuture(Authn.PostAuthnLoginResponse
-                                  .respond500WithTextPlain(INTERNAL_ERROR)));
-                            } else {
-                              asyncResultHandler.handle(Future.succeededFuture(PostAuthnUpdateResponse.respond204()));
-                            }
-                          });
+              makeCredentialObject(null, userEntity.getString("id"), entity.getNewPassword(),
+                  tenantId, okapiHeaders)
+              .onFailure(e -> asyncResultHandler.handle(Future.succeededFuture(hashFailureResponse(e))))
+              .onSuccess(newCred -> {
+                Map<String, String> requestHeaders = createRequestHeader(okapiHeaders, userAgent, xForwardedFor);
+                passwordStorageService.updateCredential(JsonObject.mapFrom(newCred), LoginConfigUtils.encodeJsonHeaders(requestHeaders),
+                    updateCredResult -> {
+                      if (updateCredResult.failed()) {
+                        String message = updateCredResult.cause().getLocalizedMessage();
+                        logger.error(message);
+                        asyncResultHandler.handle(Future.succeededFuture(
+                            PostAuthnUpdateResponse.respond500WithTextPlain(message)));
+                      } else {
+                        // after succesfull change password skip login attempts counter
+                        loginAttemptsHelper.onLoginSuccessAttemptHandler(userEntity, requestHeaders)
+                            .onComplete(event -> {
+                              if (event.failed()) {
+                                asyncResultHandler.handle(Future.succeededFuture(Authn.PostAuthnLoginResponse
+                                    .respond500WithTextPlain(INTERNAL_ERROR)));
+                              } else {
+                                asyncResultHandler.handle(Future.succeededFuture(PostAuthnUpdateResponse.respond204()));
+                              }
+                            });
 
-                    }
-                  });
+                      }
+                    });
+              });
             }
           });
         }
@@ -1301,43 +1650,95 @@ public class LoginAPI implements Authn {
   private Future<Boolean> checkValidLogin(String userId, String password,
       String tenantId, Context vertxContext) {
     Promise<Boolean> validLoginPromise = Promise.promise();
-    PostgresClient pgClient = PostgresClient.getInstance(vertxContext.owner(),
-        tenantId);
     //Get credentials
-    Criteria credCrit = new Criteria()
-        .addField(CREDENTIAL_USERID_FIELD)
-        .setOperation("=")
-        .setVal(userId);
-    pgClient.get(TABLE_NAME_CREDENTIALS, Credential.class, new Criterion(credCrit),
-        true, getReply -> {
+    CredentialLookup.findByUserId(vertxContext.owner(), tenantId, userId).onComplete(getReply -> {
       if (getReply.failed()) {
         validLoginPromise.fail(getReply.cause());
       } else {
-        List<Credential> credList = getReply.result().getResults();
+        List<Credential> credList = getReply.result();
         if (credList.isEmpty()) {
           validLoginPromise.fail("No valid credential for that userId found");
+          return;
         }
         Credential userCred = credList.get(0);
-        String calculatedHash = authUtil.calculateHash(password, userCred.getSalt());
-        if (calculatedHash.equals(userCred.getHash())) {
-          validLoginPromise.complete(Boolean.TRUE);
-        } else {
-          validLoginPromise.complete(Boolean.FALSE);
+        PasswordHasher hasher;
+        try {
+          hasher = PasswordHashers.forId(userCred.getHashAlgorithm());
+        } catch (IllegalArgumentException e) {
+          validLoginPromise.fail(e);
+          return;
         }
+        hashExecutor().execute(() -> hasher.verify(password, userCred.getSalt(), userCred.getHash()))
+          .onComplete(validLoginPromise);
       }
     });
     return validLoginPromise.future();
   }
 
-  private Credential makeCredentialObject(String id, String userId, String password) {
-    String salt = authUtil.getSalt();
-    String hash = authUtil.calculateHash(password, salt);
-    Credential cred = new Credential();
-    cred.setId(id);
-    cred.setUserId(userId);
-    cred.setSalt(salt);
-    cred.setHash(hash);
-    return cred;
+  private Future<Credential> makeCredentialObject(String id, String userId, String password,
+      String tenantId, Map<String, String> okapiHeaders) {
+    return PasswordHashers.getTarget(vertx, okapiHeaders.get(XOkapiHeaders.URL),
+        okapiHeaders.get(XOkapiHeaders.TOKEN), tenantId)
+      .compose(hasher -> {
+        String salt = hasher.getSalt();
+        return hashExecutor().execute(() -> hasher.calculateHash(password, salt))
+          .map(hash -> {
+            Credential cred = new Credential();
+            cred.setId(id);
+            cred.setUserId(userId);
+            cred.setSalt(salt);
+            cred.setHash(hash);
+            cred.setHashAlgorithm(hasher.getId());
+            return cred;
+          });
+      });
+  }
+
+  private HashExecutor hashExecutor() {
+    return HashExecutor.get(vertx);
+  }
+
+  /**
+   * @return 0 if the login attempt is allowed by the LoginThrottle, otherwise the seconds to wait
+   */
+  private int throttle(String tenantId, LoginCredentials entity, Map<String, String> okapiHeaders,
+      String userAgent, String xForwardedFor) {
+
+    LoginThrottle loginThrottle = LoginThrottle.get(vertx);
+    if (loginThrottle == null) {
+      return 0;
+    }
+    String ip = EventLogUtils.getClientIp(createRequestHeader(okapiHeaders, userAgent, xForwardedFor));
+    String username = entity.getUsername() != null ? entity.getUsername() : entity.getUserId();
+    int retryAfter = loginThrottle.acquire(tenantId, ip, username);
+    if (retryAfter > 0) {
+      logger.debug("Login attempt of {} from {} throttled for {} s", username, ip, retryAfter);
+    }
+    return retryAfter;
+  }
+
+  static Response throttledResponse(int retryAfter) {
+    return Response.status(429)
+        .header(RETRY_AFTER, retryAfter)
+        .type(MediaType.TEXT_PLAIN)
+        .entity(TOO_MANY_LOGIN_ATTEMPTS)
+        .build();
+  }
+
+  /**
+   * Response for a failed password hashing: 503 with Retry-After if the hashing
+   * pool is saturated, 500 otherwise.
+   */
+  static Response hashFailureResponse(Throwable cause) {
+    if (cause instanceof HashExecutorSaturatedException saturated) {
+      return Response.status(503)
+          .header(RETRY_AFTER, saturated.getRetryAfterSeconds())
+          .type(MediaType.TEXT_PLAIN)
+          .entity(HASHING_UNAVAILABLE)
+          .build();
+    }
+    logger.error(DUAL_MSG, INTERNAL_ERROR, cause.getMessage(), cause);
+    return PostAuthnLoginResponse.respond500WithTextPlain(INTERNAL_ERROR);
   }
 
   public static Errors getErrors(String errorMessage, String errorCode,
@@ -0,0 +1,25 @@
+package org.folio.rest.impl;
+
+import org.folio.rest.resource.interfaces.ShutdownAPI;
+import org.folio.util.EventLogPartitions;
+import org.folio.util.EventLogQueue;
+import org.folio.util.FailedLoginCounter;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+/**
+ * Stores the state that is kept in memory before the verticle is undeployed.
+ */
+public class ShutdownAPIs implements ShutdownAPI {
+
+  @Override
+  public void shutdown(Vertx vertx, Handler<AsyncResult<Void>> handler) {
+    EventLogPartitions.close(vertx);
+    Future.join(FailedLoginCounter.close(vertx), EventLogQueue.close(vertx))
+    .<Void>mapEmpty()
+    .onComplete(handler);
+  }
+}
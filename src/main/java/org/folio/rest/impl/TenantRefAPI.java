@@ -4,7 +4,9 @@ import java.util.Map;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.rest.annotations.Validate;
+import org.folio.rest.jaxrs.model.Parameter;
 import org.folio.rest.jaxrs.model.TenantAttributes;
+import org.folio.util.EventLogPartitions;
 
 import io.vertx.core.Context;
 import io.vertx.core.Future;
@@ -30,6 +32,8 @@ public class TenantRefAPI extends TenantAPI {
                            Map<String, String> headers, Context vertxContext) {
     log.info("load sample using tenant {}", tenantId);
     return super.loadData(attributes, tenantId, headers, vertxContext)
+        .compose(superRecordsLoaded -> setEventLogRetention(attributes, tenantId, vertxContext)
+            .map(superRecordsLoaded))
         .compose(superRecordsLoaded -> {
           return new TenantLoading()
               .withKey("loadSample").withLead("sample-data")
@@ -40,4 +44,22 @@ public class TenantRefAPI extends TenantAPI {
               .perform(attributes, headers, vertxContext, superRecordsLoaded);
         });
   }
+
+  /**
+   * Store the eventLogRetentionDays tenant parameter if given.
+   */
+  private Future<Void> setEventLogRetention(TenantAttributes attributes, String tenantId, Context vertxContext) {
+    for (Parameter parameter : attributes.getParameters()) {
+      if (EventLogPartitions.RETENTION_DAYS_PARAMETER.equals(parameter.getKey())) {
+        try {
+          Integer days = parameter.getValue() == null ? null : Integer.valueOf(parameter.getValue());
+          return EventLogPartitions.setRetentionDays(vertxContext.owner(), tenantId, days);
+        } catch (NumberFormatException e) {
+          return Future.failedFuture(new IllegalArgumentException(
+              EventLogPartitions.RETENTION_DAYS_PARAMETER + " must be an integer: " + parameter.getValue()));
+        }
+      }
+    }
+    return Future.succeededFuture();
+  }
 }
@@ -30,6 +30,17 @@ public interface ConfigurationService {
     return new ConfigurationServiceVertxEBProxy(vertx, address);
   }
 
+  /**
+   * The service instance of this JVM if not clustered, the event bus proxy otherwise.
+   *
+   * @param vertx   vertx instance
+   * @param address host address
+   * @return ConfigurationService instance
+   */
+  static ConfigurationService getInstance(Vertx vertx, String address) {
+    return LocalServices.get(vertx, ConfigurationService.class, () -> createProxy(vertx, address));
+  }
+
   /**
    * Get configurations
    *
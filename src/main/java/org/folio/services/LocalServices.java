@@ -0,0 +1,42 @@
+package org.folio.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.vertx.core.Vertx;
+
+/**
+ * Service implementations that run in this JVM.
+ *
+ * <p>Calling a local service directly skips the event bus proxy that encodes
+ * each call into a message and decodes it again. The proxy is only needed
+ * if Vert.x is clustered.
+ */
+public final class LocalServices {
+
+  private static final Map<Vertx, Map<Class<?>, Object>> services = new ConcurrentHashMap<>();
+
+  private LocalServices() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  public static <T> void register(Vertx vertx, Class<T> serviceInterface, T service) {
+    services.computeIfAbsent(vertx, x -> new ConcurrentHashMap<>()).put(serviceInterface, service);
+  }
+
+  /**
+   * @param proxy creates the event bus proxy
+   * @return the local service if registered and Vert.x is not clustered, the event bus proxy otherwise
+   */
+  public static <T> T get(Vertx vertx, Class<T> serviceInterface, Supplier<T> proxy) {
+    if (vertx.isClustered()) {
+      return proxy.get();
+    }
+    Object service = services.getOrDefault(vertx, Map.of()).get(serviceInterface);
+    if (service == null) {
+      return proxy.get();
+    }
+    return serviceInterface.cast(service);
+  }
+}
@@ -32,6 +32,17 @@ public interface LogStorageService {
     return new LogStorageServiceVertxEBProxy(vertx, address);
   }
 
+  /**
+   * The service instance of this JVM if not clustered, the event bus proxy otherwise.
+   *
+   * @param vertx   vertx instance
+   * @param address host address
+   * @return LogStorageService instance
+   */
+  static LogStorageService getInstance(Vertx vertx, String address) {
+    return LocalServices.get(vertx, LogStorageService.class, () -> createProxy(vertx, address));
+  }
+
   /**
    * Save entity {@link LogEvent}
    *
@@ -49,10 +60,15 @@ public interface LogStorageService {
    * @param limit    maximum number of results
    * @param offset   offset index in a list of results
    * @param query    query string to filter users based on matching criteria in fields
+   * @param cursor   cursor of the page, newest first, offset is ignored; null to page by offset
+   * @param totalRecords auto for an exact or estimated count, none to skip counting
+   * @param from     only events at or after this ISO 8601 date-time with offset; null for none
+   * @param to       only events before this ISO 8601 date-time with offset; null for none
    * @return asyncResult with the entity {@link LogEvents}
    */
   @Fluent
-  LogStorageService findAllEvents(String tenantId, int limit, int offset, String query, Handler<AsyncResult<JsonObject>> asyncResultHandler);
+  LogStorageService findAllEvents(String tenantId, int limit, int offset, String query, String cursor,
+      String totalRecords, String from, String to, Handler<AsyncResult<JsonObject>> asyncResultHandler);
 
   /**
    * Delete the entity {@link LogEvent} by userId
@@ -33,6 +33,17 @@ public interface PasswordStorageService {
     return new PasswordStorageServiceVertxEBProxy(vertx, address);
   }
 
+  /**
+   * The service instance of this JVM if not clustered, the event bus proxy otherwise.
+   *
+   * @param vertx   vertx instance
+   * @param address host address
+   * @return PasswordStorageService instance
+   */
+  static PasswordStorageService getInstance(Vertx vertx, String address) {
+    return LocalServices.get(vertx, PasswordStorageService.class, () -> createProxy(vertx, address));
+  }
+
   /**
    * Save the change password action in the repository.
    * The method returns the `passwordExists` parameter of entity {@link ResponseCreateAction}
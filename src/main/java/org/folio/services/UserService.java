@@ -30,6 +30,17 @@ public interface UserService {
     return new UserServiceVertxEBProxy(vertx, address);
   }
 
+  /**
+   * The service instance of this JVM if not clustered, the event bus proxy otherwise.
+   *
+   * @param vertx   vertx instance
+   * @param address host address
+   * @return UserService instance
+   */
+  static UserService getInstance(Vertx vertx, String address) {
+    return LocalServices.get(vertx, UserService.class, () -> createProxy(vertx, address));
+  }
+
   /**
    * Query the mod-users module to determine if the username is valid for login
    *
@@ -16,8 +16,9 @@ import org.folio.rest.jaxrs.model.Config;
 import org.folio.rest.jaxrs.model.ConfigResponse;
 import org.folio.rest.jaxrs.model.Configurations;
 import org.folio.services.ConfigurationService;
+import org.folio.util.ConfigCache;
+import org.folio.util.EventLogTypes;
 import org.folio.util.LoginConfigUtils;
-import org.folio.util.WebClientFactory;
 
 import com.google.common.collect.Lists;
 
@@ -25,21 +26,17 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
-import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
-import io.vertx.ext.web.client.HttpRequest;
 
 public class ConfigurationServiceImpl implements ConfigurationService {
 
   private static final String REQUEST_URI_PATH = "configurations/entries";
-  private static final String REQUEST_URL_TEMPLATE = "%s/%s?query=module==%s";
+  private static final String REQUEST_PATH_TEMPLATE = "/%s?query=module==%s";
   private static final String EVENT_LOG_STATUS_CODE = "statusCode";
 
   private static final Predicate<Config> HAS_EVENT_CONFIG_ENABLE_LOG_CONFIG = config -> config.getModule().equals(EVENT_LOG_API_MODULE) && config.getCode().equals(EVENT_LOG_API_CODE_STATUS);
   private static final Predicate<Config> HAS_EVENT_CONFIG_ENABLE_LOG_EVENS = config -> config.getModule().equals(EVENT_LOG_API_MODULE) && config.getEnabled();
 
-  private static final String ERROR_LOOKING_UP_MOD_CONFIG = "Error looking up config at url=%s | Expected status code 200, got %s | error message: %s";
-
   private static final Logger logger = LogManager.getLogger(ConfigurationServiceImpl.class);
 
   private Vertx vertx;
@@ -59,6 +56,7 @@ public class ConfigurationServiceImpl implements ConfigurationService {
           .withEnabled(false);
 
         if (lookupConfigHandler.failed()) {
+          EventLogTypes.get(vertx).refreshFailed(tenantId);
           asyncResultHandler.handle(Future.succeededFuture(JsonObject.mapFrom(configResponse)));
           return;
         }
@@ -66,11 +64,14 @@ public class ConfigurationServiceImpl implements ConfigurationService {
         boolean isEnable = isStatusCodeEnable(lookupConfigHandler);
         configResponse.setEnabled(isEnable);
         if (!isEnable) {
+          EventLogTypes.get(vertx).update(tenantId, getPathAndQuery(), lookupConfigHandler.result(), false, List.of());
           asyncResultHandler.handle(Future.succeededFuture(JsonObject.mapFrom(configResponse)));
           return;
         }
 
         List<String> enableConfigurations = getEnableConfigurations(lookupConfigHandler);
+        EventLogTypes.get(vertx).update(tenantId, getPathAndQuery(), lookupConfigHandler.result(), true,
+            enableConfigurations);
         configResponse.setConfigs(enableConfigurations);
         asyncResultHandler.handle(Future.succeededFuture(JsonObject.mapFrom(configResponse)));
       });
@@ -102,16 +103,10 @@ public class ConfigurationServiceImpl implements ConfigurationService {
     Map<String,String> okapiHeaders = new CaseInsensitiveMap(headers);
     String okapiUrl = okapiHeaders.get(XOkapiHeaders.URL);
     String okapiToken = okapiHeaders.get(XOkapiHeaders.TOKEN);
-    String requestUrl = String.format(REQUEST_URL_TEMPLATE, okapiUrl, REQUEST_URI_PATH, EVENT_LOG_API_MODULE);
-
-    HttpRequest<Buffer> request = WebClientFactory.getWebClient(vertx).getAbs(requestUrl);
-    return request.putHeader(XOkapiHeaders.TOKEN, okapiToken)
-      .putHeader(XOkapiHeaders.TENANT, tenantId)
-      .send().map(response -> {
-        if (response.statusCode() != 200) {
-          throw new RuntimeException(String.format(ERROR_LOOKING_UP_MOD_CONFIG, requestUrl, response.statusCode(), response.bodyAsString()));
-        }
-        return response.bodyAsJsonObject();
-      });
+    return ConfigCache.getEntries(vertx, okapiUrl, okapiToken, tenantId, getPathAndQuery());
+  }
+
+  private static String getPathAndQuery() {
+    return String.format(REQUEST_PATH_TEMPLATE, REQUEST_URI_PATH, EVENT_LOG_API_MODULE);
   }
 }
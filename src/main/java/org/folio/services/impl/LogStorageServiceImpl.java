@@ -1,10 +1,14 @@
 package org.folio.services.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
 import org.folio.rest.impl.LoginAPI;
 import org.folio.rest.jaxrs.model.ConfigResponse;
 import org.folio.rest.jaxrs.model.LogEvent;
@@ -13,9 +17,11 @@ import org.folio.rest.jaxrs.model.LogResponse;
 import org.folio.rest.jaxrs.model.LoggingEvent;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.cql.CQLWrapper;
-import org.folio.rest.persist.interfaces.Results;
 import org.folio.services.ConfigurationService;
 import org.folio.services.LogStorageService;
+import org.folio.util.EventLogCursor;
+import org.folio.util.EventLogQueue;
+import org.folio.util.EventLogTimeBounds;
 import org.folio.util.EventLogUtils;
 import org.folio.util.LoginConfigUtils;
 import org.folio.util.StringUtil;
@@ -23,7 +29,9 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.cql2pgjson.CQL2PgJSON;
 import org.folio.cql2pgjson.exception.FieldException;
+import org.folio.cql2pgjson.model.SqlSelect;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -41,6 +49,7 @@ public class LogStorageServiceImpl implements LogStorageService {
   private static final String SUCCESSFUL_MESSAGE_DELETE = "Event was successfully deleted from event log";
   private static final String ERROR_MESSAGE_STORAGE_SERVICE = "Error while %s | message: %s";
   private static final String EVENT_CONFIG_CRITERIA_ID = "userId==%s";
+  private static final String TOTAL_RECORDS_NONE = "none";
 
   private final Logger logger = LogManager.getLogger(LogStorageServiceImpl.class);
   private final Vertx vertx;
@@ -76,6 +85,11 @@ public class LogStorageServiceImpl implements LogStorageService {
         return;
       }
 
+      EventLogQueue queue = EventLogQueue.get(vertx);
+      if (queue != null) {
+        queue.add(tenantId, toJson(logEvent));
+        return;
+      }
       JsonObject loggingEventJson = JsonObject.mapFrom(logEvent);
       createEvent(tenantId, loggingEventJson,
         storageHandler -> {
@@ -88,6 +102,17 @@ public class LogStorageServiceImpl implements LogStorageService {
     return this;
   }
 
+  /**
+   * @return the event as stored by {@link PostgresClient#save}
+   */
+  private static JsonObject toJson(LogEvent logEvent) {
+    try {
+      return PostgresClient.pojo2JsonObject(logEvent);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException(e.getMessage(), e);
+    }
+  }
+
   @Override
   public LogStorageService createEvent(String tenantId, JsonObject eventEntity,
                                        Handler<AsyncResult<JsonObject>> asyncResultHandler) {
@@ -118,37 +143,112 @@ public class LogStorageServiceImpl implements LogStorageService {
   }
 
   @Override
-  public LogStorageService findAllEvents(String tenantId, int limit, int offset, String query,
+  public LogStorageService findAllEvents(String tenantId, int limit, int offset, String query, String cursor,
+                                         String totalRecords, String from, String to,
                                          Handler<AsyncResult<JsonObject>> asyncResultHandler) {
-    try {
-      CQLWrapper cql = getCQL(query, limit, offset);
-      String[] fieldList = {"*"};
-      PostgresClient.getInstance(vertx, tenantId)
-        .get(SNAPSHOTS_TABLE_EVENT_LOGS, LoggingEvent.class, fieldList, cql, true, false,
-          getReply -> {
-            if (getReply.failed()) {
-              String errorMessage = String.format(ERROR_MESSAGE_STORAGE_SERVICE,
-                "querying the db to get all event configurations", getReply.cause().getMessage());
-              logger.error(errorMessage);
-              asyncResultHandler.handle(Future.failedFuture(getReply.cause()));
-              return;
-            }
+    boolean count = !TOTAL_RECORDS_NONE.equals(totalRecords);
+    Future<LogEvents> events = cursor != null
+      ? findEventsAfter(tenantId, limit, query, from, to, cursor, count)
+      : findEvents(tenantId, limit, offset, query, from, to, count);
+    events
+      .map(JsonObject::mapFrom)
+      .onFailure(e -> logger.error(String.format(ERROR_MESSAGE_STORAGE_SERVICE,
+        "querying the db to get a page of events", e.getMessage())))
+      .onComplete(asyncResultHandler);
+    return this;
+  }
 
-            Results<LoggingEvent> result = getReply.result();
-            Integer totalRecords = result.getResultInfo().getTotalRecords();
-            LogEvents eventEntries = new LogEvents()
-              .withLoggingEvent(result.getResults())
-              .withTotalRecords(totalRecords);
+  /**
+   * Get the page of events at the offset, in the order of the sortBy of the query.
+   */
+  private Future<LogEvents> findEvents(String tenantId, int limit, int offset, String query,
+                                       String from, String to, boolean count) {
+    try {
+      Tuple params = Tuple.tuple();
+      EventLogTimeBounds timeBounds = EventLogTimeBounds.parse(from, to);
+      String where = "true";
+      String orderBy = "";
+      if (query != null && !query.isBlank()) {
+        SqlSelect select = new CQL2PgJSON(SNAPSHOTS_TABLE_EVENT_LOGS + ".jsonb").toSql(query);
+        where = select.getWhere();
+        orderBy = select.getOrderBy().isEmpty() ? "" : " ORDER BY " + select.getOrderBy();
+      }
+      PostgresClient pgClient = PostgresClient.getInstance(vertx, tenantId);
+      Future<Integer> totalRecords = count
+        ? estimateCount(pgClient, tenantId, "(" + where + ") AND " + timeBounds.whereConstant())
+        : Future.succeededFuture();
+      String sql = "SELECT jsonb::text FROM " + eventLogsTable(tenantId)
+        + " WHERE (" + where + ") AND " + timeBounds.where(params)
+        + orderBy + " LIMIT " + limit + " OFFSET " + offset;
+      return pgClient.execute(sql, params)
+        .compose(rowSet -> totalRecords.map(total -> {
+          List<LoggingEvent> events = new ArrayList<>(rowSet.size());
+          for (Row row : rowSet) {
+            events.add(Json.decodeValue(row.getString(0), LoggingEvent.class));
+          }
+          return new LogEvents()
+            .withLoggingEvent(events)
+            .withTotalRecords(total);
+        }));
+    } catch (Exception e) {
+      return Future.failedFuture(e);
+    }
+  }
 
-            JsonObject entries = JsonObject.mapFrom(eventEntries);
-            asyncResultHandler.handle(Future.succeededFuture(entries));
-          });
-    } catch (Exception ex) {
-      String errorMessage = String.format(ERROR_MESSAGE_STORAGE_SERVICE, "find the event by filter", ex.getMessage());
-      logger.error(errorMessage);
-      asyncResultHandler.handle(Future.failedFuture(errorMessage));
+  /**
+   * Get the page of events after the cursor, ordered by event_time and id, newest first.
+   * Unlike an offset the cursor is found with an index lookup, however deep the page is,
+   * and the event_time bound skips the partitions of later months.
+   */
+  private Future<LogEvents> findEventsAfter(String tenantId, int limit, String query, String from, String to,
+                                            String cursorToken, boolean count) {
+    try {
+      EventLogCursor cursor = EventLogCursor.parse(cursorToken);
+      EventLogTimeBounds timeBounds = EventLogTimeBounds.parse(from, to);
+      String where = EventLogUtils.getWhere(query);
+      PostgresClient pgClient = PostgresClient.getInstance(vertx, tenantId);
+      Future<Integer> totalRecords = count
+        ? estimateCount(pgClient, tenantId, "(" + where + ") AND " + timeBounds.whereConstant())
+        : Future.succeededFuture();
+      Tuple params = cursor == null ? Tuple.tuple() : Tuple.of(cursor.eventTime(), cursor.id());
+      String sql = "SELECT id, jsonb::text, event_time::text FROM " + eventLogsTable(tenantId)
+        + " WHERE (" + where + ")"
+        + (cursor == null ? "" : " AND event_time <= $1::timestamptz AND (event_time, id) < ($1::timestamptz, $2)")
+        + " AND " + timeBounds.where(params)
+        + " ORDER BY event_time DESC, id DESC LIMIT " + limit;
+      return pgClient.execute(sql, params)
+        .compose(rowSet -> totalRecords.map(total -> {
+          List<LoggingEvent> events = new ArrayList<>(rowSet.size());
+          EventLogCursor last = null;
+          for (Row row : rowSet) {
+            events.add(Json.decodeValue(row.getString(1), LoggingEvent.class));
+            last = new EventLogCursor(row.getString(2), row.getUUID(0));
+          }
+          return new LogEvents()
+            .withLoggingEvent(events)
+            .withTotalRecords(total)
+            .withNextCursor(last != null && events.size() == limit ? last.encode() : null);
+        }));
+    } catch (Exception e) {
+      return Future.failedFuture(e);
     }
-    return this;
+  }
+
+  /**
+   * @return the event_logs table qualified with the tenant schema, for raw SQL that must not
+   *   depend on the search_path
+   */
+  private static String eventLogsTable(String tenantId) {
+    return PostgresClient.convertToPsqlStandard(tenantId) + "." + SNAPSHOTS_TABLE_EVENT_LOGS;
+  }
+
+  /**
+   * @return the exact number of events matching the where clause if small, an estimate otherwise
+   */
+  private static Future<Integer> estimateCount(PostgresClient pgClient, String tenantId, String where) {
+    return pgClient.execute("SELECT " + PostgresClient.convertToPsqlStandard(tenantId) + ".count_estimate($1)",
+        Tuple.of("SELECT jsonb FROM " + eventLogsTable(tenantId) + " WHERE " + where))
+      .map(rowSet -> (int) Math.min(Integer.MAX_VALUE, rowSet.iterator().next().getLong(0)));
   }
 
   @Override
@@ -195,16 +295,4 @@ public class LogStorageServiceImpl implements LogStorageService {
     CQL2PgJSON cql2PgJSON = new CQL2PgJSON(SNAPSHOTS_TABLE_EVENT_LOGS + ".jsonb");
     return new CQLWrapper(cql2PgJSON, String.format(EVENT_CONFIG_CRITERIA_ID, StringUtil.cqlEncode(value)));
   }
-
-  /**
-   * Build CQL from request URL query
-   *
-   * @param query - query from URL
-   * @param limit - limit of records for pagination
-   * @return - CQL wrapper for building postgres request to database
-   */
-  private CQLWrapper getCQL(String query, int limit, int offset) throws FieldException {
-    CQL2PgJSON cql2pgJson = new CQL2PgJSON(SNAPSHOTS_TABLE_EVENT_LOGS + ".jsonb");
-    return new CQLWrapper(cql2pgJson, query, limit, offset);
-  }
 }
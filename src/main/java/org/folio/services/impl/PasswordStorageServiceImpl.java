@@ -5,18 +5,20 @@ import static org.folio.util.LoginConfigUtils.EVENT_CONFIG_PROXY_STORY_ADDRESS;
 import static org.folio.util.LoginConfigUtils.SNAPSHOTS_TABLE_CREDENTIALS;
 import static org.folio.util.LoginConfigUtils.SNAPSHOTS_TABLE_PW;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.apache.commons.collections4.map.CaseInsensitiveMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.folio.cql2pgjson.CQL2PgJSON;
-import org.folio.cql2pgjson.exception.FieldException;
 import org.folio.okapi.common.XOkapiHeaders;
 import org.folio.rest.impl.LoginAPI;
 import org.folio.rest.jaxrs.model.Configurations;
@@ -34,16 +36,16 @@ import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.SQLConnection;
 import org.folio.rest.persist.Criteria.Criteria;
 import org.folio.rest.persist.Criteria.Criterion;
-import org.folio.rest.persist.Criteria.Limit;
-import org.folio.rest.persist.Criteria.Order;
-import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.persist.interfaces.Results;
 import org.folio.services.LogStorageService;
 import org.folio.services.PasswordStorageService;
-import org.folio.util.AuthUtil;
+import org.folio.util.ConfigCache;
+import org.folio.util.EventLogTypes;
+import org.folio.util.HashExecutor;
 import org.folio.util.LoginConfigUtils;
-import org.folio.util.StringUtil;
-import org.folio.util.WebClientFactory;
+import org.folio.util.PasswordHashers;
+import org.folio.util.SqlStatement;
+import org.folio.util.SqlStatements;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
@@ -62,8 +64,6 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
   private static final String PW_ACTION_ID = "id";
   private static final String ERROR_MESSAGE_STORAGE_SERVICE = "Error while %s | message: %s";
   public static final String TABLE_NAME_CREDENTIALS = "auth_credentials";
-  private static final String TABLE_NAME_CREDENTIALS_HISTORY = "auth_credentials_history";
-  private static final String CREDENTIALS_HISTORY_DATE_FIELD = "date";
   private static final String PW_HISTORY_NUMBER_CONF_PATH =
     "/configurations/entries?query=configName==password.history.number";
 
@@ -71,12 +71,11 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
 
   private static final Logger logger = LogManager.getLogger(PasswordStorageServiceImpl.class);
   private final Vertx vertx;
-  private final AuthUtil authUtil = new AuthUtil();
   private LogStorageService logStorageService;
 
   public PasswordStorageServiceImpl(Vertx vertx) {
     this.vertx = vertx;
-    logStorageService = LogStorageService.createProxy(vertx, EVENT_CONFIG_PROXY_STORY_ADDRESS);
+    logStorageService = LogStorageService.getInstance(vertx, EVENT_CONFIG_PROXY_STORY_ADDRESS);
   }
 
   @Override
@@ -265,18 +264,28 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
         String actionId = resetAction.getPasswordResetActionId();
         Optional<Credential> credentialOpt = getReply.result().getResults()
           .stream().findFirst();
-        if (credentialOpt.isEmpty()) {
-          Credential userCredential = createNewCredential(newPassword, userId);
-          saveUserCredential(requestHeaders, headers, beginTx, asyncHandler, actionId, userCredential);
-        } else {
-          Credential userCredential = createCredential(newPassword, credentialOpt.get());
+        Future<Credential> credentialFuture = credentialOpt.isEmpty()
+          ? createNewCredential(newPassword, userId, okapiUrl, token, tenant)
+          : createCredential(newPassword, credentialOpt.get(), okapiUrl, token, tenant);
+        credentialFuture.onComplete(credReply -> {
+          if (credReply.failed()) {
+            pgClient.rollbackTx(beginTx,
+              rollbackTx ->
+                asyncHandler.handle(Future.failedFuture(credReply.cause())));
+            return;
+          }
+          Credential userCredential = credReply.result();
+          if (credentialOpt.isEmpty()) {
+            saveUserCredential(requestHeaders, headers, beginTx, asyncHandler, actionId, userCredential);
+            return;
+          }
           updateCredAndCredHistory(beginTx, userCredential, tenant, token, okapiUrl)
             .onComplete(v -> {
               deletePasswordActionById(pgClient, beginTx, asyncHandler, actionId, false);
 
-              logStorageService.logEvent(tenant, userId, LogEvent.EventType.PASSWORD_RESET, headers);
+              logEvent(tenant, userId, LogEvent.EventType.PASSWORD_RESET, headers);
             });
-        }
+        });
       });
   }
 
@@ -298,11 +307,20 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
           return;
         }
         deletePasswordActionById(pgClient, beginTx, asyncHandler, actionId, true);
-        logStorageService.logEvent(tenant, userCredential.getUserId(),
+        logEvent(tenant, userCredential.getUserId(),
           LogEvent.EventType.PASSWORD_CREATE, headers);
       });
   }
 
+  /**
+   * Send the event to the event log unless the event type is known to be disabled for the tenant.
+   */
+  private void logEvent(String tenant, String userId, LogEvent.EventType eventType, JsonObject headers) {
+    if (EventLogTypes.get(vertx).isEnabled(tenant, eventType)) {
+      logStorageService.logEvent(tenant, userId, eventType, headers);
+    }
+  }
+
   /**
    * Delete the password action by actionId
    */
@@ -339,14 +357,19 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
    *
    * @param password a new user's password
    * @param cred     user's credential
-   * @return updated user's credential
+   * @return updated user's credential, hashed with the target hash profile of the tenant
    */
-  private Credential createCredential(String password, Credential cred) {
-    String newSalt = authUtil.getSalt();
-    String newHash = authUtil.calculateHash(password, newSalt);
-    return cred
-      .withHash(newHash)
-      .withSalt(newSalt);
+  private Future<Credential> createCredential(String password, Credential cred,
+                                              String okapiUrl, String token, String tenant) {
+    return PasswordHashers.getTarget(vertx, okapiUrl, token, tenant)
+      .compose(hasher -> {
+        String newSalt = hasher.getSalt();
+        return HashExecutor.get(vertx).execute(() -> hasher.calculateHash(password, newSalt))
+          .map(newHash -> cred
+            .withHash(newHash)
+            .withSalt(newSalt)
+            .withHashAlgorithm(hasher.getId()));
+      });
   }
 
   /**
@@ -356,12 +379,13 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
    * @param userId   user ID
    * @return new user's credential
    */
-  private Credential createNewCredential(String password, String userId) {
+  private Future<Credential> createNewCredential(String password, String userId,
+                                                 String okapiUrl, String token, String tenant) {
     Credential credential = new Credential()
       .withId(UUID.randomUUID().toString())
       .withUserId(userId)
       .withMetadata(new Metadata().withCreatedDate(new Date()));
-    return createCredential(password, credential);
+    return createCredential(password, credential, okapiUrl, token, tenant);
   }
 
   /**
@@ -409,7 +433,7 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
             if (done.failed()) {
               asyncResultHandler.handle(Future.failedFuture(done.cause()));
             } else {
-              logStorageService.logEvent(tenant, cred.getUserId(),
+              logEvent(tenant, cred.getUserId(),
                 LogEvent.EventType.PASSWORD_CHANGE, headers);
 
               asyncResultHandler.handle(Future.succeededFuture());
@@ -434,164 +458,93 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
     String token = okapiHeaders.get(XOkapiHeaders.TOKEN);
     String okapiUrl = okapiHeaders.get(XOkapiHeaders.URL);
 
-    getCredByUserId(tenant, userId)
-      .map(credential -> credential != null &&
-        credential.getHash().equals(authUtil.calculateHash(password, credential.getSalt())))
-      .compose(used -> {
-        if (used) {
-          return Future.succeededFuture(Boolean.TRUE);
-        } else {
-          return getPasswordHistoryNumber(okapiUrl, token, tenant)
-            .compose(number -> isPresentInCredHistory(tenant, userId, password, number));
-        }
-      }).onComplete(used -> {
-      if (used.failed()) {
-        asyncResultHandler.handle(Future.failedFuture(used.cause()));
-        return;
-      }
-      asyncResultHandler.handle(Future.succeededFuture(used.result()));
-    });
+    getPasswordHistoryNumber(okapiUrl, token, tenant)
+      .compose(number -> getCredAndCredHistory(tenant, userId, number - 1))
+      .compose(hashes -> isPresent(hashes, password))
+      .onComplete(asyncResultHandler);
 
     return this;
   }
 
-  protected Future<Credential> getCredByUserId(String tenantId, String userId) {
-    PostgresClient pgClient = PostgresClient.getInstance(vertx, tenantId);
-
-    Promise<Credential> promise = Promise.promise();
-    Criteria criteria = new Criteria()
-      .addField(USER_ID_FIELD)
-      .setOperation("=")
-      .setVal(userId);
-
-    pgClient.get(TABLE_NAME_CREDENTIALS, Credential.class, new Criterion(criteria), false, false, get -> {
-      if (get.failed()) {
-        promise.fail(get.cause());
-        return;
-      }
-      List<Credential> credList = get.result().getResults();
-      if(credList.isEmpty()) {
-        promise.complete(null);
-        return;
-      }
-      promise.complete(credList.get(0));
-    });
-    return promise.future();
-  }
-
+  /**
+   * Replace the user's credential, move the old one into the history and trim the history
+   * to the newest password.history.number - 1 records, all in a single statement on the
+   * transaction connection.
+   */
   private Future<Void> updateCredAndCredHistory(AsyncResult<SQLConnection> conn, Credential cred, String tenant,
                                                 String token, String okapiUrl) {
 
-    return getCredByUserId(tenant, cred.getUserId())
-      .compose(credential -> updateCred(conn, tenant, cred.withId(credential.getId()), credential))
-      .compose(credential -> updateCredHistory(conn, credential, okapiUrl, token, tenant));
-  }
-
-  private Future<Credential> updateCred(AsyncResult<SQLConnection> conn, String tenantId,
-                                        Credential newCred, Credential oldCred) {
-    PostgresClient pgClient = PostgresClient.getInstance(vertx, tenantId);
-    Promise<RowSet<Row>> promise = Promise.promise();
-    CQL2PgJSON field = null;
-    try {
-      field = new CQL2PgJSON(TABLE_NAME_CREDENTIALS + ".jsonb");
-    } catch (FieldException e) {
-      promise.fail(e);
-    }
-    CQLWrapper cqlWrapper = new CQLWrapper(field, "id==" + StringUtil.cqlEncode(newCred.getId()));
-    pgClient.update(conn, TABLE_NAME_CREDENTIALS, newCred, cqlWrapper, true, promise);
-    return promise.future().map(updated -> oldCred);
-  }
-
-  private Future<Void> updateCredHistory(AsyncResult<SQLConnection> conn, Credential cred,
-                                         String okapiUrl, String token, String tenant) {
-
-    return getCredHistoryCountByUserId(tenant, cred.getUserId())
-      .compose(count -> getPasswordHistoryNumber(okapiUrl, token, tenant)
-        .map(number -> count - number + 2))
-      .compose(count -> deleteOldCredHistoryRecords(tenant, cred.getUserId(), count))
-      .compose(v -> {
-        Promise<String> promise = Promise.promise();
-        CredentialsHistory credHistory = new CredentialsHistory();
-        credHistory.setId(UUID.randomUUID().toString());
-        credHistory.setUserId(cred.getUserId());
-        credHistory.setSalt(cred.getSalt());
-        credHistory.setHash(cred.getHash());
-        credHistory.setDate(new Date());
-
-        PostgresClient pgClient = PostgresClient.getInstance(vertx, tenant);
-        pgClient.save(conn, TABLE_NAME_CREDENTIALS_HISTORY, UUID.randomUUID().toString(), credHistory, promise);
-        return promise.future().map(s -> null);
+    return getPasswordHistoryNumber(okapiUrl, token, tenant)
+      .compose(number -> {
+        CredentialsHistory credHistory = new CredentialsHistory()
+          .withId(UUID.randomUUID().toString())
+          .withDate(new Date());
+        Tuple params;
+        try {
+          params = Tuple.of(cred.getUserId(), PostgresClient.pojo2JsonObject(cred),
+            credHistory.getId(), PostgresClient.pojo2JsonObject(credHistory), Math.max(0, number - 2));
+        } catch (JsonProcessingException e) {
+          return Future.failedFuture(e);
+        }
+        Promise<RowSet<Row>> promise = Promise.promise();
+        PostgresClient.getInstance(vertx, tenant).execute(conn,
+            SqlStatement.CREDENTIAL_ROTATE.sql(PostgresClient.convertToPsqlStandard(tenant)), params, promise);
+        return promise.future().compose(rowSet -> {
+          if (rowSet.iterator().next().getLong(0) == 0) {
+            return Future.failedFuture("No credentials for userId " + cred.getUserId());
+          }
+          return Future.succeededFuture();
+        });
       });
   }
 
-  private Future<Integer> getCredHistoryCountByUserId(String tenantId, String userId) {
-    PostgresClient pgClient = PostgresClient.getInstance(vertx, tenantId);
-    String tableName = String.format(
-      "%s.%s", PostgresClient.convertToPsqlStandard(tenantId), TABLE_NAME_CREDENTIALS_HISTORY);
-    String query = String.format("SELECT count(id) FROM %s WHERE jsonb->>'userId' = $1", tableName);
-    return pgClient.selectSingle(query, Tuple.of(userId))
-        .map(row-> row.getInteger(0));
+  /**
+   * Get the current credential and the newest history records of the user in a single query.
+   *
+   * @param historyLimit maximum number of history records
+   * @return the hashes of the credential and the history records grouped by hash algorithm
+   *   and salt, the credential first; empty if the user has no credential
+   */
+  private Future<Map<HashKey, List<String>>> getCredAndCredHistory(String tenantId, String userId,
+                                                                  int historyLimit) {
+    return SqlStatements.execute(vertx, tenantId, SqlStatement.CREDENTIAL_AND_HISTORY,
+            Tuple.of(userId, Math.max(0, historyLimit)))
+        .map(rowSet -> {
+          Map<HashKey, List<String>> hashes = new LinkedHashMap<>();
+          for (Row row : rowSet) {
+            hashes.computeIfAbsent(new HashKey(row.getString(0), row.getString(1)), k -> new ArrayList<>())
+                .add(row.getString(2));
+          }
+          return hashes;
+        });
   }
 
-  private Future<Void> deleteOldCredHistoryRecords(String tenantId, String userId, Integer count) {
-    if (count < 1) {
-      return Future.succeededFuture();
-    }
-
-    PostgresClient pgClient = PostgresClient.getInstance(vertx, tenantId);
-    String tableName = String.format(
-      "%s.%s", PostgresClient.convertToPsqlStandard(tenantId), TABLE_NAME_CREDENTIALS_HISTORY);
-
-    String query = String.format("DELETE FROM %s WHERE id IN " +
-        "(SELECT id FROM %s WHERE jsonb->>'userId' = $1 ORDER BY jsonb->>'date' ASC LIMIT $2)",
-      tableName, tableName);
-    return pgClient.execute(query, Tuple.of(userId, count)).mapEmpty();
+  /**
+   * Check the password against the hashes, hashing it once per hash algorithm and salt.
+   * The checks run in parallel on the hashing pool and stop at the first match.
+   */
+  private Future<Boolean> isPresent(Map<HashKey, List<String>> hashes, String password) {
+    List<Callable<Boolean>> checks = new ArrayList<>(hashes.size());
+    hashes.forEach((key, hashList) -> checks.add(() -> PasswordHashers.forId(key.hashAlgorithm())
+        .verifyAny(password, key.salt(), hashList)));
+    return HashExecutor.get(vertx).anyMatch(checks);
   }
 
-  private Future<Boolean> isPresentInCredHistory(String tenantId, String userId,
-                                                 String password, int pwdHistoryNumber) {
-    Promise<Boolean> promise = Promise.promise();
-    PostgresClient pgClient = PostgresClient.getInstance(vertx, tenantId);
-
-    Criteria criteria = new Criteria()
-      .addField(USER_ID_FIELD)
-      .setOperation("=")
-      .setVal(userId);
-
-    Criterion criterion = new Criterion(criteria)
-      .setOrder(new Order(String.format("jsonb->>'%s'", CREDENTIALS_HISTORY_DATE_FIELD), Order.ORDER.DESC))
-      .setLimit(new Limit(pwdHistoryNumber - 1));
-
-    pgClient.get(TABLE_NAME_CREDENTIALS_HISTORY, CredentialsHistory.class, criterion, true, get -> {
-      if (get.failed()) {
-        promise.fail(get.cause());
-        return;
-      }
-
-      boolean anyMatch = get.result().getResults().stream()
-        .map(history -> authUtil.calculateHash(password, history.getSalt()))
-        .anyMatch(hash -> get.result().getResults().stream()
-          .anyMatch(history -> history.getHash().equals(hash)));
-
-      promise.complete(anyMatch);
-    });
-
-    return promise.future();
+  private record HashKey(String hashAlgorithm, String salt) {
   }
 
   private Future<Integer> getPasswordHistoryNumber(String okapiUrl, String token, String tenant) {
-    return WebClientFactory.getWebClient(vertx).getAbs(okapiUrl + PW_HISTORY_NUMBER_CONF_PATH)
-      .putHeader(XOkapiHeaders.TOKEN, token)
-      .putHeader(XOkapiHeaders.TENANT, tenant)
-      .send().map(resp -> {
-        if (resp.statusCode() != 200) {
-          return DEFAULT_PASSWORDS_HISTORY_NUMBER;
-        }
-        Configurations conf = resp.bodyAsJson(Configurations.class);
+    return ConfigCache.getEntries(vertx, okapiUrl, token, tenant, PW_HISTORY_NUMBER_CONF_PATH)
+      .map(json -> {
+        Configurations conf = json.mapTo(Configurations.class);
         if (conf.getConfigs().isEmpty()) {
           return DEFAULT_PASSWORDS_HISTORY_NUMBER;
         }
         return Integer.valueOf(conf.getConfigs().get(0).getValue());
+      })
+      .otherwise(e -> {
+        logger.warn("Using default password history number for tenant {}: {}", tenant, e.getMessage());
+        return DEFAULT_PASSWORDS_HISTORY_NUMBER;
       });
   }
 }
@@ -19,37 +19,135 @@ import org.folio.services.UserService;
 import org.folio.util.LoginConfigUtils;
 import org.folio.util.PercentCodec;
 import org.folio.util.StringUtil;
+import org.folio.util.TenantCache;
+import org.folio.util.TenantCaches;
 import org.folio.util.WebClientFactory;
 
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static org.folio.util.LoginConfigUtils.getIntModuleArg;
 
 public class UserServiceImpl implements UserService {
+  public static final String USERS_CACHE = "users";
+  public static final String USERS_NOT_FOUND_CACHE = "users-not-found";
+  public static final String USER_TENANTS_CACHE = "user-tenants";
+  public static final String USERS_ACTIVE_RECHECK = "cache.users.active-recheck";
+  /** key of the cached "does the tenant have any user-tenant records" probe */
+  private static final String ANY_USER_TENANT_KEY = "*";
   private static final String USER_TENANTS_URI_PATH = "/user-tenants";
   private static final String REQUEST_URL_TEMPLATE = "%s%s";
   private static final String USER_TENANT_GET_ERROR = "Error getting user-tenant record; username=%s; userId=%s; tenantId=%s: %s";
   private static final Logger logger = LogManager.getLogger();
 
   private final Vertx vertx;
+  private final TenantCache<JsonArray> userTenantsCache;
+  private final TenantCache<CachedUser> usersCache;
+  private final TenantCache<String> usersNotFoundCache;
+  private final long activeRecheckNanos;
 
+  /**
+   * A looked up user and when its active flag has been fetched.
+   */
+  private record CachedUser(JsonObject user, long checkedNanos) {
+  }
 
   public UserServiceImpl(Vertx vertx) {
     this.vertx = vertx;
+    this.userTenantsCache = TenantCaches.get(vertx, USER_TENANTS_CACHE, 60, 10000);
+    this.usersCache = TenantCaches.get(vertx, USERS_CACHE, 300, 10000);
+    this.usersNotFoundCache = TenantCaches.get(vertx, USERS_NOT_FOUND_CACHE, 10, 10000);
+    this.activeRecheckNanos = TimeUnit.SECONDS.toNanos(getIntModuleArg(USERS_ACTIVE_RECHECK, 30));
+  }
+
+  /**
+   * Remove the user from the users cache, for example because the user has been deactivated.
+   */
+  public static void invalidateUser(Vertx vertx, String tenant, JsonObject user) {
+    TenantCache<?> cache = TenantCaches.find(vertx, USERS_CACHE);
+    if (cache == null) {
+      return;
+    }
+    cache.invalidate(tenant, userKey(null, user.getString("id")));
+    if (user.getString(LoginAPI.USERNAME) != null) {
+      cache.invalidate(tenant, userKey(user.getString(LoginAPI.USERNAME), null));
+    }
   }
 
   @Override
   public UserService lookupUser(String username, String userId, String tenant, final String okapiURL,
       String requestToken, Handler<AsyncResult<JsonObject>> asyncResultHandler) {
+    String key = userKey(username, userId);
+    CachedUser cached = usersCache.get(tenant, key);
+    Future<JsonObject> user;
+    if (cached != null && System.nanoTime() - cached.checkedNanos() < activeRecheckNanos) {
+      user = Future.succeededFuture(cached.user());
+    } else if (cached != null) {
+      user = recheckUser(cached.user(), tenant, okapiURL, requestToken)
+          .recover(e -> fetchUser(username, userId, tenant, okapiURL, requestToken, key));
+    } else {
+      String notFound = usersNotFoundCache.get(tenant, key);
+      if (notFound != null) {
+        user = Future.failedFuture(new LoginAPI.UserLookupException(notFound));
+      } else {
+        user = fetchUser(username, userId, tenant, okapiURL, requestToken, key);
+      }
+    }
+    user.map(JsonObject::copy).onComplete(asyncResultHandler);
+    return this;
+  }
+
+  private Future<JsonObject> fetchUser(String username, String userId, String tenant, String okapiURL,
+      String requestToken, String key) {
     final String requestURL = buildUserLookupURL(okapiURL, username, userId);
     HttpRequest<Buffer> request = WebClientFactory.getWebClient(vertx).getAbs(requestURL);
     logger.info("Lookup to username: {}; userId: {}; tenant: {}", username, userId, tenant);
     request.putHeader(XOkapiHeaders.TENANT, tenant)
       .putHeader(XOkapiHeaders.TOKEN, requestToken);
-    request
+    return request
       .expect(ResponsePredicate.JSON)
       .send()
-      .map(res -> extractUserFromLookupResponse(res, requestURL, username))
-      .onComplete(asyncResultHandler);
-    return this;
+      .map(res -> extractUserFromLookupResponse(res, requestURL, username, tenant, key))
+      .onSuccess(user -> cacheUser(tenant, user));
+  }
+
+  /**
+   * Fetch the cached user by id to get the current active flag, this is cheaper than the CQL
+   * lookup. Fails if the user doesn't exist or has been renamed so that the caller falls
+   * back to the full lookup.
+   */
+  private Future<JsonObject> recheckUser(JsonObject user, String tenant, String okapiURL, String requestToken) {
+    String userId = user.getString("id");
+    logger.debug("Recheck of cached user; userId: {}; tenant: {}", userId, tenant);
+    invalidateUser(vertx, tenant, user);
+    return WebClientFactory.getWebClient(vertx)
+        .getAbs(okapiURL + "/users/" + PercentCodec.encode(userId))
+        .putHeader(XOkapiHeaders.TENANT, tenant)
+        .putHeader(XOkapiHeaders.TOKEN, requestToken)
+        .expect(ResponsePredicate.SC_OK)
+        .expect(ResponsePredicate.JSON)
+        .send()
+        .map(res -> {
+          JsonObject current = res.bodyAsJsonObject();
+          if (!Objects.equals(user.getString(LoginAPI.USERNAME), current.getString(LoginAPI.USERNAME))) {
+            throw new LoginAPI.UserLookupException("User " + userId + " has been renamed");
+          }
+          cacheUser(tenant, current);
+          return current;
+        });
+  }
+
+  private void cacheUser(String tenant, JsonObject user) {
+    var cachedUser = new CachedUser(user, System.nanoTime());
+    usersCache.put(tenant, userKey(null, user.getString("id")), cachedUser);
+    if (user.getString(LoginAPI.USERNAME) != null) {
+      usersCache.put(tenant, userKey(user.getString(LoginAPI.USERNAME), null), cachedUser);
+    }
+  }
+
+  private static String userKey(String username, String userId) {
+    return username != null ? "username=" + username : "id=" + userId;
   }
 
   @Override
@@ -76,8 +174,8 @@ public class UserServiceImpl implements UserService {
     return okapiURL + "/users?query=" + PercentCodec.encode(query);
   }
 
-  private JsonObject extractUserFromLookupResponse(HttpResponse<Buffer> res, String requestURL, String username)
-      throws LoginAPI.UserLookupException {
+  private JsonObject extractUserFromLookupResponse(HttpResponse<Buffer> res, String requestURL, String username,
+      String tenant, String key) throws LoginAPI.UserLookupException {
     if (res.statusCode() != 200) {
       String message = "Error looking up user at url '" + requestURL + "' Expected status code 200, got '" +
         res.statusCode() + "' :" + res.bodyAsString();
@@ -92,7 +190,9 @@ public class UserServiceImpl implements UserService {
       throw new LoginAPI.UserLookupException("Bad results from username");
     }
     if (recordCount == 0) {
-      throw new LoginAPI.UserLookupException("No user found by username " + username);
+      String message = "No user found by username " + username;
+      usersNotFoundCache.put(tenant, key, message);
+      throw new LoginAPI.UserLookupException(message);
     }
     return lookupResult.getJsonArray("users").getJsonObject(0);
   }
@@ -102,6 +202,51 @@ public class UserServiceImpl implements UserService {
     Map<String,String> okapiHeaders = new CaseInsensitiveMap<>(headers);
     String okapiUrl = okapiHeaders.get(XOkapiHeaders.URL);
     String okapiToken = okapiHeaders.get(XOkapiHeaders.TOKEN);
+    String key = "username=" + username + "&userId=" + userId + "&tenantId=" + requestedTenantId;
+    JsonArray cached = userTenantsCache.get(currentTenantId, key);
+    if (cached != null) {
+      return Future.succeededFuture(cached.copy());
+    }
+    return hasUserTenants(okapiUrl, okapiToken, currentTenantId)
+        .compose(hasUserTenants -> {
+          if (!hasUserTenants) {
+            // not a consortium member, no need to ask and to remember per user
+            return Future.succeededFuture(new JsonArray());
+          }
+          return fetchUserTenants(okapiUrl, okapiToken, currentTenantId, username, userId, requestedTenantId)
+              .onSuccess(userTenants -> userTenantsCache.put(currentTenantId, key, userTenants.copy()));
+        });
+  }
+
+  /**
+   * Whether any user-tenant record is visible from the tenant. Most tenants are not
+   * in a consortium and this saves them the /user-tenants request of each login.
+   */
+  private Future<Boolean> hasUserTenants(String okapiUrl, String okapiToken, String currentTenantId) {
+    JsonArray cached = userTenantsCache.get(currentTenantId, ANY_USER_TENANT_KEY);
+    if (cached != null) {
+      return Future.succeededFuture(!cached.isEmpty());
+    }
+    return WebClientFactory.getWebClient(vertx)
+        .getAbs(String.format(REQUEST_URL_TEMPLATE, okapiUrl, USER_TENANTS_URI_PATH))
+        .addQueryParam("limit", "1")
+        .putHeader(XOkapiHeaders.TOKEN, okapiToken)
+        .putHeader(XOkapiHeaders.TENANT, currentTenantId)
+        .expect(ResponsePredicate.status(200))
+        .send()
+        .map(response -> {
+          JsonArray userTenants = response.bodyAsJsonObject().getJsonArray("userTenants", new JsonArray());
+          userTenantsCache.put(currentTenantId, ANY_USER_TENANT_KEY, userTenants);
+          return !userTenants.isEmpty();
+        })
+        .otherwise(e -> {
+          logger.debug("Probing {} for tenant {} failed: {}", USER_TENANTS_URI_PATH, currentTenantId, e.getMessage());
+          return true;
+        });
+  }
+
+  private Future<JsonArray> fetchUserTenants(String okapiUrl, String okapiToken, String currentTenantId,
+      String username, String userId, String requestedTenantId) {
     String requestUrl = String.format(REQUEST_URL_TEMPLATE, okapiUrl, USER_TENANTS_URI_PATH);
 
     HttpRequest<Buffer> request = WebClientFactory.getWebClient(vertx).getAbs(requestUrl);
@@ -1,57 +1,213 @@
 package org.folio.util;
 
-import java.security.NoSuchAlgorithmException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
-import java.security.spec.InvalidKeySpecException;
-import javax.crypto.SecretKeyFactory;
-import javax.crypto.spec.PBEKeySpec;
-import javax.xml.bind.DatatypeConverter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
 
 /**
+ * PBKDF2 (RFC 8018) password hashing.
+ *
+ * <p>The HMAC instances and the scratch buffers are kept per thread, a calculation
+ * only allocates the password bytes and the result. The password is UTF-8 encoded
+ * like the SunJCE {@code PBKDF2WithHmac*} SecretKeyFactory does, the results are
+ * identical.
  *
  * @author kurt
  */
-public class AuthUtil {
+public class AuthUtil implements PasswordHasher {
 
-  private static final String DEFAULT_ALGORITHM = "PBKDF2WithHmacSHA1";
-  private static final int DEFAULT_ITERATIONS = 1000;
-  private static final int DEFAULT_KEYLENGTH = 160;
+  static final String DEFAULT_ALGORITHM = "PBKDF2WithHmacSHA1";
+  static final int DEFAULT_ITERATIONS = 1000;
+  static final int DEFAULT_KEYLENGTH = 160;
+  private static final String ALGORITHM_PREFIX = "PBKDF2With";
+  private static final int SALT_LENGTH = 20;
+  private static final HexFormat HEX = HexFormat.of().withUpperCase();
+  private static final SecureRandom RANDOM = new SecureRandom();
 
-  private String algorithm;
-  private int iterations;
-  private int keyLength;
+  private final String algorithm;
+  private final int iterations;
+  private final int keyLength;
+  private final ThreadLocal<Engine> engine;
 
+  /**
+   * @param algorithm PBKDF2 algorithm like PBKDF2WithHmacSHA512
+   * @param iterations number of iterations
+   * @param keyLength length of the derived key in bits, a multiple of 8
+   * @throws IllegalArgumentException if algorithm is not PBKDF2With&lt;mac&gt;
+   */
   public AuthUtil(String algorithm, int iterations, int keyLength) {
+    if (algorithm == null || !algorithm.startsWith(ALGORITHM_PREFIX)) {
+      throw new IllegalArgumentException("Unsupported algorithm: " + algorithm);
+    }
     this.algorithm = algorithm;
     this.iterations = iterations;
     this.keyLength = keyLength;
+    String macAlgorithm = algorithm.substring(ALGORITHM_PREFIX.length());
+    this.engine = ThreadLocal.withInitial(() -> new Engine(macAlgorithm));
   }
 
   public AuthUtil() {
-    this.algorithm = DEFAULT_ALGORITHM;
-    this.iterations = DEFAULT_ITERATIONS;
-    this.keyLength = DEFAULT_KEYLENGTH;
+    this(DEFAULT_ALGORITHM, DEFAULT_ITERATIONS, DEFAULT_KEYLENGTH);
+  }
+
+  /**
+   * @return the id in the form {@code <algorithm>:<iterations>:<keyLength>}
+   */
+  @Override
+  public String getId() {
+    return algorithm + ":" + iterations + ":" + keyLength;
   }
 
+  @Override
   public String calculateHash(String password, String salt) {
-    //public String calculateHash(String password, String salt) {
-    char[] passwordArray = password.toCharArray();
-    byte[] saltBytes = DatatypeConverter.parseHexBinary(salt);
-    PBEKeySpec spec = new PBEKeySpec(passwordArray, saltBytes, iterations, keyLength);
-    byte[] hash;
+    byte[] hash = deriveKey(password, HEX.parseHex(salt));
+    try {
+      return HEX.formatHex(hash);
+    } finally {
+      Arrays.fill(hash, (byte) 0);
+    }
+  }
+
+  @Override
+  public boolean verify(String password, String salt, String hash) {
+    byte[] expected;
+    try {
+      expected = HEX.parseHex(hash);
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+    byte[] actual = deriveKey(password, HEX.parseHex(salt));
+    try {
+      return MessageDigest.isEqual(expected, actual);
+    } finally {
+      Arrays.fill(actual, (byte) 0);
+    }
+  }
+
+  /**
+   * Derive the key once and compare it with each hash.
+   */
+  @Override
+  public boolean verifyAny(String password, String salt, Collection<String> hashes) {
+    byte[] actual = deriveKey(password, HEX.parseHex(salt));
+    try {
+      boolean match = false;
+      for (String hash : hashes) {
+        try {
+          match |= MessageDigest.isEqual(HEX.parseHex(hash), actual);
+        } catch (IllegalArgumentException e) {
+          // not valid hex, doesn't match
+        }
+      }
+      return match;
+    } finally {
+      Arrays.fill(actual, (byte) 0);
+    }
+  }
+
+  /**
+   * @return the derived key of keyLength / 8 bytes
+   */
+  public byte[] deriveKey(String password, byte[] salt) {
+    byte[] passwordBytes = password.getBytes(StandardCharsets.UTF_8);
     try {
-      SecretKeyFactory keyFactory = SecretKeyFactory.getInstance(algorithm);
-      hash = keyFactory.generateSecret(spec).getEncoded();
-    } catch(NoSuchAlgorithmException | InvalidKeySpecException e) {
-      throw new RuntimeException(e);
+      return engine.get().derive(passwordBytes, salt, iterations, keyLength / 8);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    } finally {
+      Arrays.fill(passwordBytes, (byte) 0);
     }
-    return DatatypeConverter.printHexBinary(hash);
   }
 
+  @Override
   public String getSalt() {
-    SecureRandom random = new SecureRandom();
-    byte bytes[] = new byte[20];
-    random.nextBytes(bytes);
-    return DatatypeConverter.printHexBinary(bytes);
+    byte[] bytes = new byte[SALT_LENGTH];
+    RANDOM.nextBytes(bytes);
+    return HEX.formatHex(bytes);
+  }
+
+  /**
+   * Per thread HMAC instance and scratch buffers.
+   */
+  private static final class Engine {
+    private final Mac mac;
+    private final byte[] u;
+    private final byte[] t;
+    private final byte[] blockIndex = new byte[4];
+    private final PasswordKey key = new PasswordKey();
+
+    Engine(String macAlgorithm) {
+      try {
+        mac = Mac.getInstance(macAlgorithm);
+      } catch (GeneralSecurityException e) {
+        throw new IllegalStateException(e);
+      }
+      u = new byte[mac.getMacLength()];
+      t = new byte[mac.getMacLength()];
+    }
+
+    byte[] derive(byte[] password, byte[] salt, int iterations, int length) throws GeneralSecurityException {
+      key.encoded = password;
+      try {
+        mac.init(key);
+      } finally {
+        key.encoded = null;
+      }
+      int macLength = u.length;
+      byte[] result = new byte[length];
+      try {
+        for (int block = 1, offset = 0; offset < length; block++, offset += macLength) {
+          blockIndex[0] = (byte) (block >>> 24);
+          blockIndex[1] = (byte) (block >>> 16);
+          blockIndex[2] = (byte) (block >>> 8);
+          blockIndex[3] = (byte) block;
+          mac.update(salt);
+          mac.update(blockIndex);
+          mac.doFinal(u, 0);
+          System.arraycopy(u, 0, t, 0, macLength);
+          for (int i = 1; i < iterations; i++) {
+            mac.update(u);
+            mac.doFinal(u, 0);
+            for (int j = 0; j < macLength; j++) {
+              t[j] ^= u[j];
+            }
+          }
+          System.arraycopy(t, 0, result, offset, Math.min(macLength, length - offset));
+        }
+        return result;
+      } finally {
+        Arrays.fill(u, (byte) 0);
+        Arrays.fill(t, (byte) 0);
+      }
+    }
+  }
+
+  /**
+   * Raw HMAC key that, unlike SecretKeySpec, accepts an empty password.
+   */
+  private static final class PasswordKey implements SecretKey {
+    private static final long serialVersionUID = 1L;
+    private transient byte[] encoded;
+
+    @Override
+    public String getAlgorithm() {
+      return "RAW";
+    }
+
+    @Override
+    public String getFormat() {
+      return "RAW";
+    }
+
+    @Override
+    public byte[] getEncoded() {
+      return encoded.clone();
+    }
   }
 }
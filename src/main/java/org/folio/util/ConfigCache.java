@@ -0,0 +1,135 @@
+package org.folio.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.okapi.common.XOkapiHeaders;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Cache of the mod-configuration entries of a tenant.
+ *
+ * <p>Concurrent misses of the same entries share a single request. If the request
+ * fails the last successfully fetched entries are used; they are kept for the time set by the
+ * {@code cache.configurations.stale.ttl} module argument (seconds, default one day).
+ *
+ * <p>The cached JsonObjects are shared and must not be modified.
+ */
+public class ConfigCache extends TenantCache<JsonObject> {
+
+  public static final String NAME = "configurations";
+  private static final int DEFAULT_TTL = 60;
+  private static final int DEFAULT_STALE_TTL = 24 * 60 * 60;
+  private static final int DEFAULT_SIZE = 1000;
+  private static final String ERROR_LOOKING_UP_MOD_CONFIG =
+      "Error looking up config at url=%s | Expected status code 200, got %s | error message: %s";
+
+  private static final Logger logger = LogManager.getLogger(ConfigCache.class);
+
+  private final TenantCache<JsonObject> stale;
+  private final Map<String, Future<JsonObject>> inFlight = new ConcurrentHashMap<>();
+
+  ConfigCache() {
+    super(NAME, DEFAULT_TTL, DEFAULT_SIZE);
+    stale = new TenantCache<>(NAME + ".stale", DEFAULT_STALE_TTL, DEFAULT_SIZE);
+  }
+
+  /**
+   * Get the cache of the Vertx, create it if it doesn't exist.
+   */
+  public static ConfigCache get(Vertx vertx) {
+    return TenantCaches.get(vertx, NAME, ConfigCache::new);
+  }
+
+  /**
+   * Get configuration entries, from the cache if present.
+   *
+   * @param pathAndQuery path and query like {@code /configurations/entries?query=code==foo},
+   *     the cache key
+   * @return the response body with the {@code configs} array
+   */
+  public static Future<JsonObject> getEntries(Vertx vertx, String okapiUrl, String token, String tenant,
+      String pathAndQuery) {
+
+    return get(vertx).get(tenant, pathAndQuery, () -> {
+      String url = okapiUrl + pathAndQuery;
+      return WebClientFactory.getWebClient(vertx).getAbs(url)
+          .putHeader(XOkapiHeaders.TOKEN, token)
+          .putHeader(XOkapiHeaders.TENANT, tenant)
+          .send()
+          .map(response -> {
+            if (response.statusCode() != 200) {
+              throw new IllegalStateException(String.format(ERROR_LOOKING_UP_MOD_CONFIG,
+                  url, response.statusCode(), response.bodyAsString()));
+            }
+            return response.bodyAsJsonObject();
+          });
+    });
+  }
+
+  /**
+   * Get the cached value, on a miss use the loader and cache its result.
+   *
+   * <p>A miss while another load of the same key is in progress gets the result of
+   * that load. If the loader fails the last value of the key is returned if still kept.
+   */
+  public Future<JsonObject> get(String tenant, String key, Supplier<Future<JsonObject>> loader) {
+    JsonObject value = get(tenant, key);
+    if (value != null) {
+      return Future.succeededFuture(value);
+    }
+    String inFlightKey = tenant + ":" + key;
+    Promise<JsonObject> promise = Promise.promise();
+    Future<JsonObject> pending = inFlight.putIfAbsent(inFlightKey, promise.future());
+    if (pending != null) {
+      return pending;
+    }
+    Future<JsonObject> loaded;
+    try {
+      loaded = loader.get();
+    } catch (Exception e) {
+      loaded = Future.failedFuture(e);
+    }
+    loaded.onComplete(res -> {
+      inFlight.remove(inFlightKey);
+      if (res.succeeded()) {
+        put(tenant, key, res.result());
+        promise.complete(res.result());
+        return;
+      }
+      JsonObject last = stale.get(tenant, key);
+      if (last == null) {
+        promise.fail(res.cause());
+        return;
+      }
+      logger.warn("Using previous configuration {} of tenant {}: {}", key, tenant, res.cause().getMessage());
+      promise.complete(last);
+    });
+    return promise.future();
+  }
+
+  @Override
+  public void put(String tenant, String key, JsonObject value) {
+    super.put(tenant, key, value);
+    stale.put(tenant, key, value);
+  }
+
+  @Override
+  public void invalidate(String tenant, String key) {
+    super.invalidate(tenant, key);
+    stale.invalidate(tenant, key);
+  }
+
+  @Override
+  public void invalidateTenant(String tenant) {
+    super.invalidateTenant(tenant);
+    stale.invalidateTenant(tenant);
+  }
+}
@@ -0,0 +1,343 @@
+package org.folio.util;
+
+import static org.folio.util.LoginConfigUtils.getIntModuleArg;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.jaxrs.model.Credential;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Import of the NDJSON body of {@code POST /authn/credentials/batch}.
+ *
+ * <p>The lines are collected into chunks of {@code credentials.batch.chunk-size} records.
+ * The passwords of a chunk are hashed on the {@link HashExecutor}, at most
+ * {@code credentials.batch.parallelism} at a time, and the credentials of a chunk are
+ * inserted with a single statement. The chunks are processed one after another while the
+ * body is still uploading; the upload is paused when two chunks are waiting.
+ *
+ * <p>The result of each record is written as an NDJSON line as soon as its chunk is stored.
+ * A client that reads the response only after uploading the body makes the module buffer
+ * these lines.
+ */
+public class CredentialBatch {
+
+  public static final String CHUNK_SIZE = "credentials.batch.chunk-size";
+  public static final String PARALLELISM = "credentials.batch.parallelism";
+  public static final String CONTENT_TYPE = "application/x-ndjson";
+  static final int MAX_LINE_LENGTH = 64 * 1024;
+  private static final int DEFAULT_CHUNK_SIZE = 100;
+  private static final Logger logger = LogManager.getLogger(CredentialBatch.class);
+
+  private final Vertx vertx;
+  private final String tenantId;
+  private final Future<PasswordHasher> hasher;
+  private final HttpServerRequest request;
+  private final HttpServerResponse response;
+  private final int chunkSize;
+  private final int parallelism;
+  private Buffer partialLine = Buffer.buffer();
+  private boolean skipLine;
+  private int lineNumber;
+  private List<Record> chunk = new ArrayList<>();
+  private Future<Void> processed = Future.succeededFuture();
+  private int waitingChunks;
+
+  /**
+   * @param hasher the password hasher of the tenant
+   * @param request the request to pause while the chunks are waiting, may be null
+   * @param response where to write the results
+   */
+  public CredentialBatch(Vertx vertx, String tenantId, Future<PasswordHasher> hasher,
+      HttpServerRequest request, HttpServerResponse response) {
+
+    this(vertx, tenantId, hasher, request, response, getIntModuleArg(CHUNK_SIZE, DEFAULT_CHUNK_SIZE),
+        getIntModuleArg(PARALLELISM, getIntModuleArg(HashExecutor.HASH_POOL_SIZE,
+            Math.max(2, Runtime.getRuntime().availableProcessors()))));
+  }
+
+  CredentialBatch(Vertx vertx, String tenantId, Future<PasswordHasher> hasher,
+      HttpServerRequest request, HttpServerResponse response, int chunkSize, int parallelism) {
+
+    this.vertx = vertx;
+    this.tenantId = tenantId;
+    this.hasher = hasher;
+    this.request = request;
+    this.response = response;
+    this.chunkSize = Math.max(1, chunkSize);
+    this.parallelism = Math.max(1, parallelism);
+  }
+
+  /**
+   * The result of a line.
+   */
+  static final class Record {
+    final int line;
+    final String userId;
+    String password;
+    Credential credential;
+    int status;
+    String message;
+
+    Record(int line, String userId, String password) {
+      this.line = line;
+      this.userId = userId;
+      this.password = password;
+    }
+
+    Record fail(int status, String message) {
+      this.status = status;
+      this.message = message;
+      this.password = null;
+      return this;
+    }
+
+    JsonObject toJson() {
+      JsonObject json = new JsonObject().put("line", line);
+      if (userId != null) {
+        json.put("userId", userId);
+      }
+      json.put("status", status);
+      if (message != null) {
+        json.put("message", message);
+      }
+      return json;
+    }
+  }
+
+  /**
+   * @return the record of the line; failed with status 400 or 422 if the line is invalid
+   */
+  static Record parse(int line, String text) {
+    JsonObject json;
+    try {
+      json = new JsonObject(text);
+    } catch (DecodeException e) {
+      return new Record(line, null, null).fail(400, "Invalid JSON: " + e.getMessage());
+    }
+    Object userId = json.getValue("userId");
+    Object password = json.getValue("password");
+    if (!(userId instanceof String) || !CredentialLookup.isUuid((String) userId)) {
+      return new Record(line, userId == null ? null : userId.toString(), null)
+          .fail(400, "userId must be a UUID");
+    }
+    String uuid = UUID.fromString((String) userId).toString();
+    if (!(password instanceof String) || ((String) password).isEmpty()) {
+      return new Record(line, uuid, null).fail(422, "Password is missing or empty");
+    }
+    return new Record(line, uuid, (String) password);
+  }
+
+  /**
+   * Add the next part of the body.
+   */
+  public void handle(Buffer buffer) {
+    int start = 0;
+    for (int i = 0; i < buffer.length(); i++) {
+      if (buffer.getByte(i) == '\n') {
+        appendToLine(buffer.slice(start, i));
+        endOfLine();
+        start = i + 1;
+      }
+    }
+    appendToLine(buffer.slice(start, buffer.length()));
+  }
+
+  /**
+   * Process the last line and the records that don't fill a chunk, then end the response.
+   *
+   * @return the outcome of the whole batch; a failure after the head of the response
+   *   has been written leaves the response open
+   */
+  public Future<Void> end() {
+    if (partialLine.length() > 0 || skipLine) {
+      endOfLine();
+    }
+    submitChunk();
+    return processed.compose(x -> {
+      writeHead();
+      return response.end();
+    });
+  }
+
+  private void appendToLine(Buffer part) {
+    if (skipLine) {
+      return;
+    }
+    if (partialLine.length() + part.length() > MAX_LINE_LENGTH) {
+      skipLine = true;
+      partialLine = Buffer.buffer();
+      return;
+    }
+    partialLine.appendBuffer(part);
+  }
+
+  private void endOfLine() {
+    lineNumber++;
+    if (skipLine) {
+      skipLine = false;
+      add(new Record(lineNumber, null, null).fail(400, "Line is longer than " + MAX_LINE_LENGTH + " bytes"));
+      return;
+    }
+    String text = partialLine.toString().trim();
+    partialLine = Buffer.buffer();
+    if (!text.isEmpty()) {
+      add(parse(lineNumber, text));
+    }
+  }
+
+  private void add(Record record) {
+    chunk.add(record);
+    if (chunk.size() >= chunkSize) {
+      submitChunk();
+    }
+  }
+
+  private void submitChunk() {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    List<Record> records = chunk;
+    chunk = new ArrayList<>(chunkSize);
+    waitingChunks++;
+    if (waitingChunks > 2 && request != null) {
+      request.pause();
+    }
+    processed = processed
+        .compose(x -> process(records))
+        .onComplete(x -> {
+          waitingChunks--;
+          if (waitingChunks <= 1 && request != null) {
+            request.resume();
+          }
+        });
+  }
+
+  private Future<Void> process(List<Record> records) {
+    List<Record> valid = new ArrayList<>(records.size());
+    for (Record record : records) {
+      if (record.status == 0) {
+        valid.add(record);
+      }
+    }
+    if (valid.isEmpty()) {
+      return write(records);
+    }
+    return hasher
+        .compose(passwordHasher -> hashAll(valid, passwordHasher))
+        .compose(x -> insert(valid))
+        .recover(e -> {
+          logger.error("Storing credentials failed: {}", e.getMessage(), e);
+          for (Record record : valid) {
+            if (record.status == 0) {
+              record.fail(500, e.getMessage());
+            }
+          }
+          return Future.succeededFuture();
+        })
+        .compose(x -> write(records));
+  }
+
+  private Future<Void> hashAll(List<Record> records, PasswordHasher passwordHasher) {
+    AtomicInteger next = new AtomicInteger();
+    List<Future<Void>> workers = new ArrayList<>(parallelism);
+    for (int i = 0; i < Math.min(parallelism, records.size()); i++) {
+      workers.add(hashNext(records, next, passwordHasher));
+    }
+    return Future.join(workers).mapEmpty();
+  }
+
+  private Future<Void> hashNext(List<Record> records, AtomicInteger next, PasswordHasher passwordHasher) {
+    int i = next.getAndIncrement();
+    if (i >= records.size()) {
+      return Future.succeededFuture();
+    }
+    Record record = records.get(i);
+    String password = record.password;
+    String salt = passwordHasher.getSalt();
+    record.password = null;
+    return HashExecutor.get(vertx).execute(() -> passwordHasher.calculateHash(password, salt))
+        .map(hash -> {
+          record.credential = new Credential()
+              .withId(UUID.randomUUID().toString())
+              .withUserId(record.userId)
+              .withSalt(salt)
+              .withHash(hash)
+              .withHashAlgorithm(passwordHasher.getId());
+          return (Void) null;
+        })
+        .otherwise(e -> {
+          record.fail(e instanceof HashExecutorSaturatedException ? 503 : 500, e.getMessage());
+          return null;
+        })
+        .compose(x -> hashNext(records, next, passwordHasher));
+  }
+
+  private Future<Void> insert(List<Record> records) {
+    JsonArray credentials = new JsonArray();
+    for (Record record : records) {
+      if (record.credential != null) {
+        credentials.add(JsonObject.mapFrom(record.credential));
+      }
+    }
+    if (credentials.isEmpty()) {
+      return Future.succeededFuture();
+    }
+    return SqlStatements.execute(vertx, tenantId, SqlStatement.CREDENTIAL_INSERT_BATCH, Tuple.of(credentials))
+        .map(rowSet -> {
+          Set<String> inserted = new HashSet<>();
+          for (Row row : rowSet) {
+            inserted.add(row.getUUID(0).toString());
+          }
+          for (Record record : records) {
+            if (record.credential == null) {
+              continue;
+            }
+            if (inserted.contains(record.credential.getId())) {
+              record.status = 201;
+            } else {
+              record.fail(422, "There already exists credentials for user id '" + record.userId + "'");
+            }
+            record.credential = null;
+          }
+          return null;
+        });
+  }
+
+  private Future<Void> write(List<Record> records) {
+    Buffer buffer = Buffer.buffer(records.size() * 64);
+    for (Record record : records) {
+      buffer.appendString(record.toJson().encode()).appendByte((byte) '\n');
+    }
+    writeHead();
+    // don't wait for the client to read, it might read only after uploading the body
+    response.write(buffer);
+    return Future.succeededFuture();
+  }
+
+  private void writeHead() {
+    if (!response.headWritten()) {
+      response.setStatusCode(200);
+      response.setChunked(true);
+      response.putHeader(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE);
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package org.folio.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import org.folio.rest.jaxrs.model.Credential;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Credential lookup of the login path.
+ *
+ * <p>It reads the id, hash, salt and hash algorithm of the credential through the
+ * indexed user_id uuid column without counting and without mapping the whole jsonb,
+ * metadata included. A userId that is not a UUID has no user_id and is looked up
+ * through the userId unique index. The statements are in the {@link SqlStatement} catalogue.
+ */
+public final class CredentialLookup {
+
+  private static final Pattern UUID_PATTERN =
+      Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+  private CredentialLookup() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * @return the credentials of the user with id, userId, hash, salt and hashAlgorithm only;
+   *   an empty list if the user has none
+   */
+  public static Future<List<Credential>> findByUserId(Vertx vertx, String tenantId, String userId) {
+    Future<RowSet<Row>> rowSet = isUuid(userId)
+        ? SqlStatements.execute(vertx, tenantId, SqlStatement.CREDENTIAL_BY_USER_ID, Tuple.of(UUID.fromString(userId)))
+        : SqlStatements.execute(vertx, tenantId, SqlStatement.CREDENTIAL_BY_USER_ID_TEXT, Tuple.of(userId));
+    return rowSet.map(rows -> {
+      List<Credential> credentials = new ArrayList<>(rows.size());
+      for (Row row : rows) {
+        credentials.add(new Credential()
+            .withId(row.getUUID(0).toString())
+            .withUserId(userId)
+            .withHash(row.getString(1))
+            .withSalt(row.getString(2))
+            .withHashAlgorithm(row.getString(3)));
+      }
+      return credentials;
+    });
+  }
+
+  static boolean isUuid(String userId) {
+    return userId != null && UUID_PATTERN.matcher(userId).matches();
+  }
+}
@@ -0,0 +1,53 @@
+package org.folio.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Position in the event log ordered by event_time and id, newest first.
+ *
+ * <p>The token is the URL safe base64 encoding of the event_time and the id of the
+ * last event of a page; clients must treat it as opaque.
+ *
+ * @param eventTime the event_time column as text
+ * @param id the event id
+ */
+public record EventLogCursor(String eventTime, UUID id) {
+
+  /**
+   * The cursor token of the first page.
+   */
+  public static final String FIRST = "*";
+  private static final char SEPARATOR = '\n';
+  /** timestamptz output format of Postgres */
+  private static final Pattern EVENT_TIME =
+      Pattern.compile("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}(\\.\\d{1,6})?[+-]\\d{2}(:\\d{2}){0,2}");
+
+  /**
+   * @return the cursor, null for {@link #FIRST}
+   * @throws IllegalArgumentException if the token is invalid
+   */
+  public static EventLogCursor parse(String token) {
+    if (FIRST.equals(token)) {
+      return null;
+    }
+    try {
+      String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int pos = value.lastIndexOf(SEPARATOR);
+      String eventTime = value.substring(0, pos);
+      if (!EVENT_TIME.matcher(eventTime).matches()) {
+        throw new IllegalArgumentException(eventTime);
+      }
+      return new EventLogCursor(eventTime, UUID.fromString(value.substring(pos + 1)));
+    } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + token, e);
+    }
+  }
+
+  public String encode() {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((eventTime + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+  }
+}
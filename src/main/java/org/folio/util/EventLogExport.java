@@ -0,0 +1,191 @@
+package org.folio.util;
+
+import static org.folio.util.LoginConfigUtils.SNAPSHOTS_TABLE_EVENT_LOGS;
+import static org.folio.util.LoginConfigUtils.getIntModuleArg;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.folio.cql2pgjson.exception.FieldException;
+import org.folio.cql2pgjson.exception.QueryValidationException;
+import org.folio.rest.persist.PostgresClient;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowStream;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Export of the event log as NDJSON or CSV.
+ *
+ * <p>The rows are read with a Postgres cursor, {@code event-log.export-fetch-size} rows at a
+ * time, and written to the HTTP response as they arrive. The cursor is paused while the
+ * response's write queue is full so that memory use doesn't depend on the number of rows.
+ */
+public final class EventLogExport {
+
+  public static final String FETCH_SIZE = "event-log.export-fetch-size";
+  private static final int DEFAULT_FETCH_SIZE = 500;
+  /** bytes collected before they are written as one chunk */
+  private static final int CHUNK_SIZE = 16 * 1024;
+  private static final String[] CSV_FIELDS =
+      { "id", "eventType", "tenant", "userId", "ip", "browserInformation", "timestamp" };
+
+  public enum Format {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    Format(String contentType, String extension) {
+      this.contentType = contentType;
+      this.extension = extension;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the format is unknown
+     */
+    public static Format parse(String format) {
+      for (Format value : values()) {
+        if (value.extension.equalsIgnoreCase(format)) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("Unknown export format: " + format);
+    }
+  }
+
+  private final Format format;
+  private final String sql;
+  private final Tuple params;
+  private Buffer chunk = Buffer.buffer(CHUNK_SIZE);
+
+  /**
+   * @param tenantId tenant of the event_logs table
+   * @param query CQL query without sortBy, null for all events
+   * @param from lower bound of the event_time, inclusive, ISO 8601 date-time with offset; null for none
+   * @param to upper bound of the event_time, exclusive, ISO 8601 date-time with offset; null for none
+   * @param format export format, ndjson or csv
+   * @throws IllegalArgumentException if a parameter is invalid
+   * @throws QueryValidationException if the query is invalid
+   */
+  public EventLogExport(String tenantId, String query, String from, String to, String format)
+      throws FieldException, QueryValidationException {
+    this.format = Format.parse(format);
+    params = Tuple.tuple();
+    String where = EventLogUtils.getWhere(query);
+    String timeBounds = EventLogTimeBounds.parse(from, to).where(params);
+    sql = "SELECT " + (this.format == Format.CSV ? csvColumns() : "jsonb::text")
+        + " FROM " + PostgresClient.convertToPsqlStandard(tenantId) + "." + SNAPSHOTS_TABLE_EVENT_LOGS
+        + " WHERE (" + where + ") AND " + timeBounds
+        + " ORDER BY event_time, id";
+  }
+
+  private static String csvColumns() {
+    List<String> columns = new ArrayList<>();
+    for (String field : CSV_FIELDS) {
+      columns.add("jsonb->>'" + field + "'");
+    }
+    return String.join(", ", columns);
+  }
+
+  /**
+   * Stream the events to the response and end it.
+   *
+   * <p>The response status and headers are only sent once the cursor is open. The returned
+   * future fails if the export fails; the caller can send an error response when
+   * {@link HttpServerResponse#headWritten()} is false, otherwise the response is incomplete
+   * and should be reset.
+   */
+  public Future<Void> writeTo(PostgresClient pgClient, HttpServerResponse response) {
+    int fetchSize = getIntModuleArg(FETCH_SIZE, DEFAULT_FETCH_SIZE);
+    return pgClient.withTrans(conn -> conn.getPgConnection().prepare(sql)
+        .compose(preparedStatement -> {
+          response.setChunked(true)
+              .putHeader(HttpHeaders.CONTENT_TYPE, format.contentType)
+              .putHeader(HttpHeaders.CONTENT_DISPOSITION,
+                  "attachment; filename=\"event-logs." + format.extension + "\"");
+          return pipe(preparedStatement.createStream(fetchSize, params), response);
+        }));
+  }
+
+  private Future<Void> pipe(RowStream<Row> rows, HttpServerResponse response) {
+    Promise<Void> promise = Promise.promise();
+    if (format == Format.CSV) {
+      appendCsvLine(chunk, CSV_FIELDS);
+    }
+    response.drainHandler(x -> rows.resume());
+    response.closeHandler(x -> {
+      rows.close();
+      promise.tryFail("Client closed the connection");
+    });
+    rows.exceptionHandler(promise::tryFail);
+    rows.endHandler(x -> response.end(chunk)
+        .onSuccess(promise::tryComplete)
+        .onFailure(promise::tryFail));
+    rows.handler(row -> {
+      appendLine(row);
+      if (chunk.length() < CHUNK_SIZE) {
+        return;
+      }
+      response.write(chunk);
+      chunk = Buffer.buffer(CHUNK_SIZE);
+      if (response.writeQueueFull()) {
+        rows.pause();
+      }
+    });
+    return promise.future();
+  }
+
+  private void appendLine(Row row) {
+    if (format == Format.NDJSON) {
+      chunk.appendString(row.getString(0)).appendByte((byte) '\n');
+      return;
+    }
+    String[] values = new String[CSV_FIELDS.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = row.getString(i);
+    }
+    appendCsvLine(chunk, values);
+  }
+
+  /**
+   * Append the values as an RFC 4180 line; a null value is an empty field.
+   *
+   * <p>A value that a spreadsheet would read as a formula, like a User-Agent header of
+   * {@code =HYPERLINK(...)}, is prefixed with {@code '} so that it is shown as text.
+   */
+  static void appendCsvLine(Buffer buffer, String... values) {
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        buffer.appendByte((byte) ',');
+      }
+      String value = values[i];
+      if (value == null) {
+        continue;
+      }
+      if (isFormula(value)) {
+        value = "'" + value;
+      }
+      if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+        buffer.appendString(value);
+        continue;
+      }
+      buffer.appendByte((byte) '"').appendString(value.replace("\"", "\"\"")).appendByte((byte) '"');
+    }
+    buffer.appendString("\r\n");
+  }
+
+  private static boolean isFormula(String value) {
+    if (value.isEmpty()) {
+      return false;
+    }
+    char first = value.charAt(0);
+    return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+  }
+}
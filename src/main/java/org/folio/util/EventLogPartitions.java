@@ -0,0 +1,103 @@
+package org.folio.util;
+
+import static org.folio.util.LoginConfigUtils.getIntModuleArg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.persist.PostgresClient;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Maintenance of the monthly event_logs partitions of all tenants.
+ *
+ * <p>On start and every {@code event-log.partition-interval} seconds the partitions of this and the next
+ * two months are created and the partitions that end before the retention period are dropped.
+ * The retention period of a tenant is set with the {@code eventLogRetentionDays} tenant
+ * parameter on install or upgrade, otherwise the {@code event-log.retention-days} module
+ * argument applies; 0 keeps all events.
+ */
+public final class EventLogPartitions {
+
+  public static final String INTERVAL = "event-log.partition-interval";
+  public static final String RETENTION_DAYS = "event-log.retention-days";
+  public static final String RETENTION_DAYS_PARAMETER = "eventLogRetentionDays";
+  private static final int DEFAULT_INTERVAL = 3600;
+  private static final Logger logger = LogManager.getLogger(EventLogPartitions.class);
+  private static final Map<Vertx, Long> timers = new ConcurrentHashMap<>();
+
+  private EventLogPartitions() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * Maintain the partitions at once and start the maintenance timer of the Vertx unless
+   * disabled by module argument; a module that is restarted more often than the interval
+   * still maintains them. Calling this method more than once with the same Vertx has no effect.
+   */
+  public static synchronized void init(Vertx vertx) {
+    int interval = getIntModuleArg(INTERVAL, DEFAULT_INTERVAL);
+    if (interval > 0 && !timers.containsKey(vertx)) {
+      timers.put(vertx, vertx.setPeriodic(interval * 1000L, x -> maintainAll(vertx)));
+      maintainAll(vertx);
+    }
+  }
+
+  /**
+   * Stop the maintenance timer of the Vertx.
+   */
+  public static void close(Vertx vertx) {
+    Long timerId = timers.remove(vertx);
+    if (timerId != null) {
+      vertx.cancelTimer(timerId);
+    }
+  }
+
+  /**
+   * Maintain the partitions of all tenants that have the event_logs partitioning.
+   */
+  public static Future<Void> maintainAll(Vertx vertx) {
+    return PostgresClient.getInstance(vertx)
+        .execute("""
+                 SELECT n.nspname FROM pg_proc p JOIN pg_namespace n ON n.oid = p.pronamespace
+                   WHERE p.proname = 'event_logs_maintain_partitions' AND n.nspname LIKE $1
+                 """, Tuple.of("%\\_" + PostgresClient.getModuleName()))
+        .compose(rowSet -> {
+          List<Future<Void>> futures = new ArrayList<>();
+          for (Row row : rowSet) {
+            String schema = row.getString(0);
+            futures.add(PostgresClient.getInstance(vertx)
+                .execute(SqlStatement.EVENT_LOGS_MAINTAIN_PARTITIONS.sql(schema), Tuple.of(getRetentionDays()))
+                .<Void>mapEmpty()
+                .onFailure(e -> logger.error("Maintaining the event_logs partitions of {} failed: {}",
+                    schema, e.getMessage(), e)));
+          }
+          return Future.join(futures).<Void>mapEmpty();
+        })
+        .onFailure(e -> logger.error("Maintaining the event_logs partitions failed: {}", e.getMessage(), e));
+  }
+
+  /**
+   * Store the retention period of the tenant and drop the partitions that are older.
+   *
+   * @param retentionDays days to keep the events, 0 to keep all, null to use the module argument
+   */
+  public static Future<Void> setRetentionDays(Vertx vertx, String tenant, Integer retentionDays) {
+    return SqlStatements.execute(vertx, tenant, SqlStatement.EVENT_LOGS_SET_RETENTION, Tuple.of(retentionDays))
+        .compose(x -> SqlStatements.execute(vertx, tenant, SqlStatement.EVENT_LOGS_MAINTAIN_PARTITIONS,
+            Tuple.of(getRetentionDays())))
+        .mapEmpty();
+  }
+
+  private static int getRetentionDays() {
+    return getIntModuleArg(RETENTION_DAYS, 0);
+  }
+}
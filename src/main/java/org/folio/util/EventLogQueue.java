@@ -0,0 +1,299 @@
+package org.folio.util;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.folio.util.LoginConfigUtils.getIntModuleArg;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Write-behind queue of the event_logs records.
+ *
+ * <p>Each tenant has a queue of at most {@code event-log.queue-size} events. The events are
+ * written with one INSERT per {@code event-log.batch-size} events when that many are queued
+ * and every {@code event-log.flush-interval} milliseconds; at most one INSERT per tenant is
+ * running at a time. When the queue is full the {@code event-log.overflow} policy applies:
+ * {@code drop-oldest} drops the oldest queued event, {@code write-through} writes the new event
+ * without queueing it. At most {@code event-log.write-through-limit} of these writes are
+ * running at a time; further new events are dropped rather than using up the connections
+ * of the login requests.
+ *
+ * <p>The queued events are written on shutdown but get lost if the module is killed.
+ * A {@code event-log.queue-size} of 0 disables the queue, each event is written on its own.
+ */
+public class EventLogQueue {
+
+  public static final String QUEUE_SIZE = "event-log.queue-size";
+  public static final String BATCH_SIZE = "event-log.batch-size";
+  public static final String FLUSH_INTERVAL = "event-log.flush-interval";
+  public static final String OVERFLOW = "event-log.overflow";
+  public static final String DROP_OLDEST = "drop-oldest";
+  public static final String WRITE_THROUGH = "write-through";
+  public static final String WRITE_THROUGH_LIMIT = "event-log.write-through-limit";
+  private static final int DEFAULT_QUEUE_SIZE = 10000;
+  private static final int DEFAULT_BATCH_SIZE = 100;
+  private static final int DEFAULT_FLUSH_INTERVAL = 1000;
+  private static final int DEFAULT_WRITE_THROUGH_LIMIT = 4;
+  private static final Logger logger = LogManager.getLogger(EventLogQueue.class);
+  private static final Map<Vertx, EventLogQueue> queues = new ConcurrentHashMap<>();
+
+  private final Vertx vertx;
+  private final int queueSize;
+  private final int batchSize;
+  private final boolean dropOldest;
+  private final int writeThroughLimit;
+  private final long timerId;
+  private final Map<String, TenantQueue> tenantQueues = new ConcurrentHashMap<>();
+  private final LongAdder queued = new LongAdder();
+  private final LongAdder written = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final AtomicInteger writingThrough = new AtomicInteger();
+
+  EventLogQueue(Vertx vertx, int queueSize, int batchSize, int flushInterval, boolean dropOldest,
+      int writeThroughLimit) {
+
+    this.vertx = vertx;
+    this.queueSize = queueSize;
+    this.batchSize = Math.max(1, batchSize);
+    this.dropOldest = dropOldest;
+    this.writeThroughLimit = writeThroughLimit;
+    this.timerId = flushInterval > 0 ? vertx.setPeriodic(flushInterval, x -> flush()) : -1;
+  }
+
+  /**
+   * Start the queue of the Vertx unless disabled by module argument.
+   * Calling this method more than once with the same Vertx has no effect.
+   */
+  public static synchronized void init(Vertx vertx) {
+    int queueSize = getIntModuleArg(QUEUE_SIZE, DEFAULT_QUEUE_SIZE);
+    if (queueSize <= 0 || queues.containsKey(vertx)) {
+      return;
+    }
+    String overflow = MODULE_SPECIFIC_ARGS.getOrDefault(OVERFLOW, DROP_OLDEST).toLowerCase(Locale.ROOT);
+    if (!DROP_OLDEST.equals(overflow) && !WRITE_THROUGH.equals(overflow)) {
+      throw new IllegalArgumentException(OVERFLOW + " must be " + DROP_OLDEST + " or " + WRITE_THROUGH + ": " + overflow);
+    }
+    queues.put(vertx, new EventLogQueue(vertx, queueSize, getIntModuleArg(BATCH_SIZE, DEFAULT_BATCH_SIZE),
+        getIntModuleArg(FLUSH_INTERVAL, DEFAULT_FLUSH_INTERVAL), DROP_OLDEST.equals(overflow),
+        getIntModuleArg(WRITE_THROUGH_LIMIT, DEFAULT_WRITE_THROUGH_LIMIT)));
+  }
+
+  /**
+   * @return the queue of the Vertx, null if disabled
+   */
+  public static EventLogQueue get(Vertx vertx) {
+    return vertx == null ? null : queues.get(vertx);
+  }
+
+  /**
+   * Stop the queue of the Vertx and write the queued events.
+   */
+  public static Future<Void> close(Vertx vertx) {
+    EventLogQueue queue = queues.remove(vertx);
+    if (queue == null) {
+      return Future.succeededFuture();
+    }
+    if (queue.timerId != -1) {
+      vertx.cancelTimer(queue.timerId);
+    }
+    return queue.flush();
+  }
+
+  /**
+   * Queue an event for writing to the event_logs table of the tenant.
+   *
+   * @param event the LogEvent as JSON; an id is added if missing
+   */
+  public void add(String tenant, JsonObject event) {
+    if (event.getString("id") == null) {
+      event.put("id", UUID.randomUUID().toString());
+    }
+    TenantQueue tenantQueue = tenantQueues.computeIfAbsent(tenant, TenantQueue::new);
+    boolean full = false;
+    boolean flushNow;
+    synchronized (tenantQueue) {
+      if (tenantQueue.events.size() >= queueSize) {
+        if (dropOldest) {
+          tenantQueue.events.removeFirst();
+          dropped.increment();
+        } else {
+          full = true;
+        }
+      }
+      if (!full) {
+        tenantQueue.events.addLast(event);
+        queued.increment();
+      }
+      flushNow = tenantQueue.events.size() >= batchSize;
+    }
+    if (full) {
+      writeThrough(tenant, event);
+    }
+    if (flushNow) {
+      drain(tenantQueue);
+    }
+  }
+
+  private void writeThrough(String tenant, JsonObject event) {
+    if (writingThrough.incrementAndGet() > writeThroughLimit) {
+      writingThrough.decrementAndGet();
+      dropped.increment();
+      return;
+    }
+    store(tenant, new JsonArray().add(event))
+    .onComplete(x -> writingThrough.decrementAndGet());
+  }
+
+  /**
+   * Write all queued events.
+   */
+  public Future<Void> flush() {
+    List<Future<Void>> futures = tenantQueues.values().stream().map(this::drain).toList();
+    return Future.join(futures).mapEmpty();
+  }
+
+  /**
+   * @return number of events currently queued
+   */
+  public int size() {
+    int size = 0;
+    for (TenantQueue tenantQueue : tenantQueues.values()) {
+      synchronized (tenantQueue) {
+        size += tenantQueue.events.size();
+      }
+    }
+    return size;
+  }
+
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public String getOverflow() {
+    return dropOldest ? DROP_OLDEST : WRITE_THROUGH;
+  }
+
+  /**
+   * @return number of events that have been queued
+   */
+  public long getQueued() {
+    return queued.sum();
+  }
+
+  /**
+   * @return number of events that have been written
+   */
+  public long getWritten() {
+    return written.sum();
+  }
+
+  /**
+   * @return number of events dropped because the queue was full: queued events with
+   *   drop-oldest, new events beyond the write-through limit with write-through
+   */
+  public long getDropped() {
+    return dropped.sum();
+  }
+
+  /**
+   * @return number of events that couldn't be written
+   */
+  public long getFailed() {
+    return failed.sum();
+  }
+
+  /**
+   * @return number of INSERT statements
+   */
+  public long getBatches() {
+    return batches.sum();
+  }
+
+  /**
+   * Write the queued events of the tenant batch by batch until the queue is empty.
+   * If this is already in progress the future of that run is returned.
+   */
+  private Future<Void> drain(TenantQueue tenantQueue) {
+    Promise<Void> promise;
+    synchronized (tenantQueue) {
+      if (tenantQueue.draining != null) {
+        return tenantQueue.draining;
+      }
+      if (tenantQueue.events.isEmpty()) {
+        return Future.succeededFuture();
+      }
+      promise = Promise.promise();
+      tenantQueue.draining = promise.future();
+    }
+    writeBatches(tenantQueue, promise);
+    return promise.future();
+  }
+
+  private void writeBatches(TenantQueue tenantQueue, Promise<Void> promise) {
+    JsonArray batch = new JsonArray();
+    synchronized (tenantQueue) {
+      while (batch.size() < batchSize && !tenantQueue.events.isEmpty()) {
+        batch.add(tenantQueue.events.removeFirst());
+      }
+      if (batch.isEmpty()) {
+        tenantQueue.draining = null;
+      }
+    }
+    if (batch.isEmpty()) {
+      promise.complete();
+      return;
+    }
+    store(tenantQueue.tenant, batch)
+    .onComplete(x -> writeBatches(tenantQueue, promise));
+  }
+
+  Future<Void> store(String tenant, JsonArray batch) {
+    batches.increment();
+    return SqlStatements.execute(vertx, tenant, SqlStatement.EVENT_LOGS_INSERT_BATCH, Tuple.of(batch))
+        .map(rows -> {
+          written.add(batch.size());
+          return (Void) null;
+        })
+        .onFailure(e -> {
+          failed.add(batch.size());
+          logger.error("Writing {} events of tenant {} to the event log failed: {}",
+              batch.size(), tenant, e.getMessage(), e);
+        })
+        .otherwiseEmpty();
+  }
+
+  /**
+   * Queued events of a tenant; all access is synchronized on the TenantQueue.
+   */
+  private static final class TenantQueue {
+    private final String tenant;
+    private final ArrayDeque<JsonObject> events = new ArrayDeque<>();
+    private Future<Void> draining;
+
+    TenantQueue(String tenant) {
+      this.tenant = tenant;
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package org.folio.util;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Bounds on the event_time of the event log; they let Postgres skip the partitions of
+ * other months.
+ *
+ * @param from lower bound, inclusive; null for none
+ * @param to upper bound, exclusive; null for none
+ */
+public record EventLogTimeBounds(OffsetDateTime from, OffsetDateTime to) {
+
+  /**
+   * @param from ISO 8601 date-time with offset, null for none
+   * @param to ISO 8601 date-time with offset, null for none
+   * @throws IllegalArgumentException if a bound is not an ISO 8601 date-time with offset
+   */
+  public static EventLogTimeBounds parse(String from, String to) {
+    return new EventLogTimeBounds(parseTime("from", from), parseTime("to", to));
+  }
+
+  private static OffsetDateTime parseTime(String name, String value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return OffsetDateTime.parse(value);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid " + name + " date-time: " + value, e);
+    }
+  }
+
+  /**
+   * Add the bounds to the parameters.
+   *
+   * @return the conditions on event_time referring to the added parameters, true for no bounds
+   */
+  public String where(Tuple params) {
+    List<String> conditions = new ArrayList<>(2);
+    if (from != null) {
+      params.addOffsetDateTime(from);
+      conditions.add("event_time >= $" + params.size());
+    }
+    if (to != null) {
+      params.addOffsetDateTime(to);
+      conditions.add("event_time < $" + params.size());
+    }
+    return conditions.isEmpty() ? "true" : String.join(" AND ", conditions);
+  }
+
+  /**
+   * @return the conditions on event_time with the bounds as constants, true for no bounds;
+   *   for SQL that is passed as text, like to count_estimate
+   */
+  public String whereConstant() {
+    List<String> conditions = new ArrayList<>(2);
+    if (from != null) {
+      conditions.add("event_time >= '" + from + "'::timestamptz");
+    }
+    if (to != null) {
+      conditions.add("event_time < '" + to + "'::timestamptz");
+    }
+    return conditions.isEmpty() ? "true" : String.join(" AND ", conditions);
+  }
+}
@@ -0,0 +1,93 @@
+package org.folio.util;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.folio.rest.jaxrs.model.LogEvent.EventType;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The event types that the EVENT_LOG mod-configuration entries of a tenant enable.
+ *
+ * <p>Callers check {@link #isEnabled(String, EventType)} before they build and send a
+ * LogEvent; most tenants have event logging disabled. The answer is kept until the
+ * {@link ConfigCache} entry it has been computed from expires or is invalidated. Then
+ * a single call is let through so that its lookup refreshes the event types while the
+ * other calls use the previous ones.
+ */
+public final class EventLogTypes {
+
+  private static final long REFRESH_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+  private static final Map<Vertx, EventLogTypes> types = new ConcurrentHashMap<>();
+
+  private final ConfigCache configCache;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  EventLogTypes(ConfigCache configCache) {
+    this.configCache = configCache;
+  }
+
+  /**
+   * Get the event types of the Vertx, create them if they don't exist.
+   */
+  public static EventLogTypes get(Vertx vertx) {
+    return types.computeIfAbsent(vertx, x -> new EventLogTypes(ConfigCache.get(vertx)));
+  }
+
+  /**
+   * @return false if the event type is known to be disabled for the tenant, true if it is
+   *     enabled or it needs to be looked up
+   */
+  public boolean isEnabled(String tenant, EventType eventType) {
+    Entry entry = entries.get(tenant);
+    if (entry == null || entry.types.contains(eventType)) {
+      return true;
+    }
+    if (configCache.peek(tenant, entry.key) == entry.configs) {
+      return false;
+    }
+    long now = System.currentTimeMillis();
+    long refreshing = entry.refreshing.get();
+    return now - refreshing > REFRESH_TIMEOUT && entry.refreshing.compareAndSet(refreshing, now);
+  }
+
+  /**
+   * Store the result of a lookup of the EVENT_LOG entries.
+   *
+   * @param key the {@link ConfigCache} key of the entries
+   * @param configs the entries as returned by the {@link ConfigCache}
+   * @param enabled whether the STATUS entry enables event logging
+   * @param codes codes of the enabled entries
+   */
+  public void update(String tenant, String key, JsonObject configs, boolean enabled, Collection<String> codes) {
+    Set<EventType> enabledTypes = EnumSet.noneOf(EventType.class);
+    if (enabled) {
+      for (EventType eventType : EventType.values()) {
+        if (codes.contains(eventType.toString())) {
+          enabledTypes.add(eventType);
+        }
+      }
+    }
+    entries.put(tenant, new Entry(key, configs, enabledTypes, new AtomicLong()));
+  }
+
+  /**
+   * Let the next stale check of the tenant refresh the event types again, used when the lookup failed.
+   */
+  public void refreshFailed(String tenant) {
+    Entry entry = entries.get(tenant);
+    if (entry != null) {
+      entry.refreshing.set(0);
+    }
+  }
+
+  private record Entry(String key, JsonObject configs, Set<EventType> types, AtomicLong refreshing) {
+  }
+}
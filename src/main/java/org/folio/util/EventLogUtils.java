@@ -1,5 +1,9 @@
 package org.folio.util;
 
+import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.cql2pgjson.exception.FieldException;
+import org.folio.cql2pgjson.exception.QueryValidationException;
+import org.folio.cql2pgjson.model.SqlSelect;
 import org.folio.okapi.common.XOkapiHeaders;
 import org.folio.rest.jaxrs.model.LogEvent;
 
@@ -10,6 +14,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.folio.rest.impl.LoginAPI.X_FORWARDED_FOR_HEADER;
+import static org.folio.util.LoginConfigUtils.SNAPSHOTS_TABLE_EVENT_LOGS;
 
 public class EventLogUtils {
 
@@ -26,8 +31,30 @@ public class EventLogUtils {
       .withTenant(requestHeaders.get(XOkapiHeaders.TENANT))
       .withBrowserInformation(requestHeaders.get(HttpHeaders.USER_AGENT))
       .withTimestamp(new Date(Long.parseLong(requestHeaders.get(XOkapiHeaders.REQUEST_TIMESTAMP))))
-      .withIp(Optional.ofNullable(requestHeaders.get(X_FORWARDED_FOR_HEADER))
-        .orElseGet(() -> requestHeaders.get(XOkapiHeaders.REQUEST_IP)));
+      .withIp(getClientIp(requestHeaders));
+  }
+
+  /**
+   * @return the X-Forwarded-For header, or the X-Okapi-Request-Ip header if missing
+   */
+  public static String getClientIp(Map<String,String> requestHeaders) {
+    return Optional.ofNullable(requestHeaders.get(X_FORWARDED_FOR_HEADER))
+      .orElseGet(() -> requestHeaders.get(XOkapiHeaders.REQUEST_IP));
+  }
+
+  /**
+   * @return the SQL where clause on the event_logs table of the CQL query, true for no query
+   * @throws IllegalArgumentException if the query has sortBy
+   */
+  public static String getWhere(String query) throws FieldException, QueryValidationException {
+    if (query == null || query.isBlank()) {
+      return "true";
+    }
+    SqlSelect select = new CQL2PgJSON(SNAPSHOTS_TABLE_EVENT_LOGS + ".jsonb").toSql(query);
+    if (!select.getOrderBy().isEmpty()) {
+      throw new IllegalArgumentException("The query must not have sortBy: " + query);
+    }
+    return select.getWhere();
   }
 
 }
@@ -0,0 +1,258 @@
+package org.folio.util;
+
+import static org.folio.util.LoginConfigUtils.getIntModuleArg;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.jaxrs.model.LoginAttempts;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * In-memory failed login counter.
+ *
+ * <p>The failed logins of a user are counted in a sliding time window, the block decision is
+ * made without reading or writing auth_attempts. The counts are added to auth_attempts
+ * in one statement per tenant every {@code login.fail.flush-interval} milliseconds and
+ * when the module shuts down; like a single failed login a stored count restarts when its
+ * window has expired. The first failed login of a user after a restart loads the
+ * stored count, so the count survives restarts.
+ *
+ * <p>The counter is disabled unless the module argument is set. With more than one module
+ * instance each instance only sees the failed logins it has handled itself and the stored
+ * count it has loaded.
+ */
+public class FailedLoginCounter {
+
+  public static final String FLUSH_INTERVAL = "login.fail.flush-interval";
+  private static final Logger logger = LogManager.getLogger(FailedLoginCounter.class);
+  private static final Map<Vertx, FailedLoginCounter> counters = new ConcurrentHashMap<>();
+
+  private final Vertx vertx;
+  private final long timerId;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  private FailedLoginCounter(Vertx vertx, int flushInterval) {
+    this.vertx = vertx;
+    this.timerId = vertx.setPeriodic(flushInterval, x -> flush());
+  }
+
+  /**
+   * Start the counter of the Vertx if enabled by module argument.
+   * Calling this method more than once with the same Vertx has no effect.
+   */
+  public static synchronized void init(Vertx vertx) {
+    int flushInterval = getIntModuleArg(FLUSH_INTERVAL, 0);
+    if (flushInterval > 0 && !counters.containsKey(vertx)) {
+      counters.put(vertx, new FailedLoginCounter(vertx, flushInterval));
+    }
+  }
+
+  /**
+   * @return the counter of the Vertx, null if disabled
+   */
+  public static FailedLoginCounter get(Vertx vertx) {
+    return vertx == null ? null : counters.get(vertx);
+  }
+
+  /**
+   * Stop the counter of the Vertx and store the pending counts.
+   */
+  public static Future<Void> close(Vertx vertx) {
+    FailedLoginCounter counter = counters.remove(vertx);
+    if (counter == null) {
+      return Future.succeededFuture();
+    }
+    vertx.cancelTimer(counter.timerId);
+    return counter.flush();
+  }
+
+  /**
+   * Count a failed login.
+   *
+   * @param windowMillis length of the sliding window
+   * @param limit the result is at most limit, older failed logins beyond it are forgotten
+   * @param loader provides the stored record, used for the first failed login of the user
+   * @return number of failed logins in the window including this one
+   */
+  public Future<Integer> add(String tenant, String userId, long windowMillis, int limit,
+      Supplier<Future<LoginAttempts>> loader) {
+
+    String key = tenant + ":" + userId;
+    Entry entry = entries.computeIfAbsent(key, x -> new Entry(tenant, userId, windowMillis, limit, loader));
+    return entry.loaded.compose(x -> {
+      Integer count = entry.add(System.currentTimeMillis(), windowMillis, limit);
+      if (count == null) {
+        // removed while loading, count it in a new entry
+        return add(tenant, userId, windowMillis, limit, loader);
+      }
+      return Future.succeededFuture(count);
+    });
+  }
+
+  /**
+   * Forget the failed logins of the user, including those not stored yet.
+   */
+  public void reset(String tenant, String userId) {
+    Entry entry = entries.remove(tenant + ":" + userId);
+    if (entry != null) {
+      entry.remove();
+    }
+  }
+
+  /**
+   * Add the pending counts to auth_attempts and forget users without failed logins in their window.
+   */
+  Future<Void> flush() {
+    long now = System.currentTimeMillis();
+    Map<Batch, JsonArray> batches = new HashMap<>();
+    for (Entry entry : entries.values()) {
+      JsonObject attempts = entry.takePending();
+      if (attempts != null) {
+        batches.computeIfAbsent(new Batch(entry.tenant, entry.getWindowMillis()), x -> new JsonArray()).add(attempts);
+      }
+      entries.computeIfPresent(entry.tenant + ":" + entry.userId,
+          (key, value) -> value == entry && entry.removeIfIdle(now) ? null : value);
+    }
+    List<Future<Void>> futures = new ArrayList<>();
+    batches.forEach((batch, attempts) -> futures.add(store(batch.tenant(), batch.windowMillis(), attempts)));
+    return Future.join(futures).mapEmpty();
+  }
+
+  /**
+   * The users of a tenant with the same window length, usually all users of the tenant.
+   */
+  private record Batch(String tenant, long windowMillis) {
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  private Future<Void> store(String tenant, long windowMillis, JsonArray batch) {
+    return SqlStatements.execute(vertx, tenant, SqlStatement.LOGIN_ATTEMPTS_FLUSH, Tuple.of(batch, windowMillis))
+        .<Void>mapEmpty()
+        .onFailure(e -> {
+          logger.error("Storing {} failed login counts of tenant {} failed: {}", batch.size(), tenant, e.getMessage(), e);
+          for (Object attempts : batch) {
+            JsonObject json = (JsonObject) attempts;
+            Entry entry = entries.get(tenant + ":" + json.getString("userId"));
+            if (entry != null) {
+              entry.restorePending(json.getInteger("attemptCount"));
+            }
+          }
+        })
+        .otherwiseEmpty();
+  }
+
+  /**
+   * Failed logins of a user; all access is synchronized on the entry.
+   */
+  private static final class Entry {
+    private final String tenant;
+    private final String userId;
+    private final ArrayDeque<Long> failures = new ArrayDeque<>();
+    private final Future<Void> loaded;
+    private long windowMillis;
+    private long lastAttempt;
+    private int pending;
+    private boolean removed;
+
+    Entry(String tenant, String userId, long windowMillis, int limit, Supplier<Future<LoginAttempts>> loader) {
+      this.tenant = tenant;
+      this.userId = userId;
+      this.windowMillis = windowMillis;
+      this.loaded = loader.get()
+          .map(attempts -> {
+            seed(attempts, windowMillis, limit);
+            return (Void) null;
+          })
+          .otherwise(e -> {
+            logger.warn("Loading the failed login count of user {} failed: {}", userId, e.getMessage());
+            return null;
+          });
+    }
+
+    synchronized void seed(LoginAttempts attempts, long windowMillis, int limit) {
+      if (attempts == null || attempts.getLastAttempt() == null || attempts.getAttemptCount() == null) {
+        return;
+      }
+      long time = attempts.getLastAttempt().getTime();
+      if (time < System.currentTimeMillis() - windowMillis) {
+        return;
+      }
+      for (int i = Math.min(attempts.getAttemptCount(), limit); i > 0; i--) {
+        failures.addFirst(time);
+      }
+    }
+
+    /**
+     * @return number of failed logins in the window, null if the entry has been removed
+     */
+    synchronized Integer add(long now, long windowMillis, int limit) {
+      if (removed) {
+        return null;
+      }
+      this.windowMillis = windowMillis;
+      while (!failures.isEmpty() && failures.peekFirst() < now - windowMillis) {
+        failures.removeFirst();
+      }
+      failures.addLast(now);
+      while (failures.size() > Math.max(1, limit)) {
+        failures.removeFirst();
+      }
+      pending++;
+      lastAttempt = now;
+      return failures.size();
+    }
+
+    synchronized long getWindowMillis() {
+      return windowMillis;
+    }
+
+    synchronized JsonObject takePending() {
+      if (pending == 0) {
+        return null;
+      }
+      LoginAttempts attempts = new LoginAttempts()
+          .withId(UUID.randomUUID().toString())
+          .withUserId(userId)
+          .withAttemptCount(pending)
+          .withLastAttempt(new Date(lastAttempt));
+      pending = 0;
+      return JsonObject.mapFrom(attempts);
+    }
+
+    synchronized void restorePending(int count) {
+      if (!removed) {
+        pending += count;
+      }
+    }
+
+    synchronized boolean removeIfIdle(long now) {
+      if (pending == 0 && lastAttempt < now - windowMillis && loaded.isComplete()) {
+        removed = true;
+      }
+      return removed;
+    }
+
+    synchronized void remove() {
+      removed = true;
+      pending = 0;
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package org.folio.util;
+
+import static org.folio.util.LoginConfigUtils.getIntModuleArg;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+
+/**
+ * Runs password hashing on a dedicated, bounded worker pool so that the key
+ * derivation never blocks the event loop.
+ *
+ * <p>At most {@code hash.pool.size} hashes run at the same time and at most
+ * {@code hash.queue.size} more wait for a free thread. Any further task fails fast
+ * with {@link HashExecutorSaturatedException}.
+ */
+public class HashExecutor {
+
+  public static final String HASH_POOL_SIZE = "hash.pool.size";
+  public static final String HASH_QUEUE_SIZE = "hash.queue.size";
+  public static final String HASH_RETRY_AFTER = "hash.retry.after";
+  private static final String POOL_NAME = "mod-login-hash";
+  private static final int DEFAULT_QUEUE_SIZE = 100;
+  private static final int DEFAULT_RETRY_AFTER = 1;
+
+  private static final Logger logger = LogManager.getLogger(HashExecutor.class);
+  private static final Map<Vertx, HashExecutor> executors = new ConcurrentHashMap<>();
+
+  private final WorkerExecutor workerExecutor;
+  private final int maxPending;
+  private final int retryAfterSeconds;
+  private final AtomicInteger pending = new AtomicInteger();
+
+  private HashExecutor(Vertx vertx) {
+    int poolSize = getIntModuleArg(HASH_POOL_SIZE, Math.max(2, Runtime.getRuntime().availableProcessors()));
+    int queueSize = getIntModuleArg(HASH_QUEUE_SIZE, DEFAULT_QUEUE_SIZE);
+    this.workerExecutor = vertx.createSharedWorkerExecutor(POOL_NAME, poolSize);
+    this.maxPending = poolSize + queueSize;
+    this.retryAfterSeconds = getIntModuleArg(HASH_RETRY_AFTER, DEFAULT_RETRY_AFTER);
+    logger.info("Password hashing pool: {} threads, {} queued tasks", poolSize, queueSize);
+  }
+
+  /**
+   * Initializes the hashing pool for the provided Vertx.
+   * Calling this method more than once with the same Vertx has no effect.
+   */
+  public static void init(Vertx vertx) {
+    get(vertx);
+  }
+
+  public static HashExecutor get(Vertx vertx) {
+    return executors.computeIfAbsent(vertx, HashExecutor::new);
+  }
+
+  /**
+   * Runs the hashing task on the pool.
+   *
+   * @param task the hashing code
+   * @return the task result, or a failed future with {@link HashExecutorSaturatedException}
+   *   if the pool and its queue are full
+   */
+  public <T> Future<T> execute(Callable<T> task) {
+    if (pending.incrementAndGet() > maxPending) {
+      pending.decrementAndGet();
+      logger.warn("Password hashing pool is saturated, {} tasks pending", maxPending);
+      return Future.failedFuture(new HashExecutorSaturatedException(retryAfterSeconds));
+    }
+    return workerExecutor.executeBlocking(task, false)
+        .onComplete(x -> pending.decrementAndGet());
+  }
+
+  /**
+   * Runs the checks on the pool at the same time and completes as soon as one of them matches;
+   * the checks that haven't started by then are skipped.
+   *
+   * @param checks the hashing code of each check
+   * @return true if a check returned true, false if all returned false, or the first failure
+   *   if no check returned true and a check failed, for example with
+   *   {@link HashExecutorSaturatedException}
+   */
+  public Future<Boolean> anyMatch(List<Callable<Boolean>> checks) {
+    if (checks.isEmpty()) {
+      return Future.succeededFuture(Boolean.FALSE);
+    }
+    Promise<Boolean> promise = Promise.promise();
+    AtomicBoolean found = new AtomicBoolean();
+    AtomicInteger remaining = new AtomicInteger(checks.size());
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    for (Callable<Boolean> check : checks) {
+      execute(() -> {
+        if (found.get()) {
+          return false;
+        }
+        boolean match = check.call();
+        if (match) {
+          found.set(true);
+        }
+        return match;
+      }).onComplete(result -> {
+        if (result.succeeded() && Boolean.TRUE.equals(result.result())) {
+          promise.tryComplete(Boolean.TRUE);
+        } else if (result.failed()) {
+          failure.compareAndSet(null, result.cause());
+        }
+        if (remaining.decrementAndGet() == 0) {
+          if (failure.get() != null) {
+            promise.tryFail(failure.get());
+          } else {
+            promise.tryComplete(Boolean.FALSE);
+          }
+        }
+      });
+    }
+    return promise.future();
+  }
+
+  /**
+   * @return number of hashing tasks that are running or waiting for a thread
+   */
+  public int getPending() {
+    return pending.get();
+  }
+}
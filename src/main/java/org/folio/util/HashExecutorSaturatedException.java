@@ -0,0 +1,17 @@
+package org.folio.util;
+
+/**
+ * Thrown when the password hashing pool and its wait queue are full.
+ */
+public class HashExecutorSaturatedException extends RuntimeException {
+  private final int retryAfterSeconds;
+
+  public HashExecutorSaturatedException(int retryAfterSeconds) {
+    super("Password hashing pool is saturated");
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public int getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
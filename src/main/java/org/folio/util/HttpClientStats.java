@@ -0,0 +1,117 @@
+package org.folio.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.vertx.core.Handler;
+import io.vertx.ext.web.client.impl.ClientPhase;
+import io.vertx.ext.web.client.impl.HttpContext;
+
+/**
+ * Counters of a {@link io.vertx.ext.web.client.WebClient}, filled by an interceptor.
+ *
+ * <p>A request is queued from its creation until it has got a pooled connection,
+ * and in use from then until the response has been dispatched or the request failed.
+ */
+public class HttpClientStats implements Handler<HttpContext<?>> {
+
+  private static final String CREATED = "stats.created";
+  private static final String SENT = "stats.sent";
+
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger inUse = new AtomicInteger();
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder waitNanos = new LongAdder();
+  private final LongAdder responseNanos = new LongAdder();
+
+  @Override
+  public void handle(HttpContext<?> context) {
+    ClientPhase phase = context.phase();
+    long now = System.nanoTime();
+    switch (phase) {
+      case CREATE_REQUEST -> {
+        if (context.get(CREATED) == null) {
+          context.set(CREATED, now);
+          queued.incrementAndGet();
+        }
+      }
+      case SEND_REQUEST -> {
+        Long created = context.get(CREATED);
+        if (created != null && context.get(SENT) == null) {
+          context.set(SENT, now);
+          queued.decrementAndGet();
+          inUse.incrementAndGet();
+          waitNanos.add(now - created);
+        }
+      }
+      case DISPATCH_RESPONSE, FAILURE -> done(context, now, phase == ClientPhase.FAILURE);
+      default -> {
+        // nothing to count
+      }
+    }
+    context.next();
+  }
+
+  private void done(HttpContext<?> context, long now, boolean failed) {
+    Long created = context.get(CREATED);
+    if (created == null) {
+      return;
+    }
+    context.set(CREATED, null);
+    if (context.get(SENT) == null) {
+      queued.decrementAndGet();
+    } else {
+      context.set(SENT, null);
+      inUse.decrementAndGet();
+    }
+    requests.increment();
+    responseNanos.add(now - created);
+    if (failed) {
+      failures.increment();
+    }
+  }
+
+  /**
+   * @return number of requests waiting for a pooled connection
+   */
+  public int getQueued() {
+    return queued.get();
+  }
+
+  /**
+   * @return number of requests that have a connection and wait for the response
+   */
+  public int getInUse() {
+    return inUse.get();
+  }
+
+  /**
+   * @return number of completed requests
+   */
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  /**
+   * @return number of failed requests including those rejected because the wait queue was full
+   */
+  public long getFailures() {
+    return failures.sum();
+  }
+
+  /**
+   * @return total time that requests waited for a pooled connection, in milliseconds
+   */
+  public long getWaitMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(waitNanos.sum());
+  }
+
+  /**
+   * @return total time from request creation to response or failure, in milliseconds
+   */
+  public long getResponseMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(responseNanos.sum());
+  }
+}
@@ -6,7 +6,8 @@ import static org.folio.util.LoginConfigUtils.EVENT_CONFIG_PROXY_STORY_ADDRESS;
 import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonArray;
@@ -22,6 +23,7 @@ import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.Criteria.Criteria;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.services.LogStorageService;
+import org.folio.services.impl.UserServiceImpl;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
@@ -49,7 +51,7 @@ public class LoginAttemptsHelper {
 
   public LoginAttemptsHelper(Vertx vertx) {
     this.vertx = vertx;
-    logStorageService = LogStorageService.createProxy(vertx, EVENT_CONFIG_PROXY_STORY_ADDRESS);
+    logStorageService = LogStorageService.getInstance(vertx, EVENT_CONFIG_PROXY_STORY_ADDRESS);
   }
 
   /**
@@ -93,38 +95,23 @@ public class LoginAttemptsHelper {
   }
 
   /**
-   * @param attempts - Login Attempts user object for deciding
-   *                 need to block user after fail login or not
-   * @return - boolean value that describe need block user or not
+   * The login.fail.attempts and login.fail.timeout settings, from the module arguments,
+   * mod-configuration or the defaults.
    */
-  private Future<Boolean> needToUserBlock(LoginAttempts attempts, Map<String, String> okapiHeaders) {
-    try {
-      Future<JsonObject> attemptsFut = getLoginConfig(LOGIN_ATTEMPTS_CODE, okapiHeaders);
-      Future<JsonObject> timeoutFut = getLoginConfig(LOGIN_ATTEMPTS_TIMEOUT_CODE, okapiHeaders);
-
-      return Future.join(attemptsFut, timeoutFut)
-          .map(compositeFuture -> {
-            boolean result = false;
-            int loginTimeoutConfigValue = getValue(timeoutFut, LOGIN_ATTEMPTS_TIMEOUT_CODE, 10);
-            int loginFailConfigValue = getValue(attemptsFut, LOGIN_ATTEMPTS_CODE, 5);
-
-            if (loginFailConfigValue != 0) {
-              // get time diff between current date and last login attempt
-              long diff = new Date().getTime() - attempts.getLastAttempt().getTime();
-              // calc date diff in minutes
-              long diffMinutes = diff / (60 * 1000) % 60;
-              if (diffMinutes > loginTimeoutConfigValue) {
-                attempts.setAttemptCount(0);
-              } else if (attempts.getAttemptCount() >= loginFailConfigValue && diffMinutes < loginTimeoutConfigValue) {
-                result = true;
-              }
-            }
-            return result;
-          });
-    } catch (Exception e) {
-      logger.error("{}", e.getMessage(), e);
-      return Future.failedFuture(e);
-    }
+  private Future<LoginFailConfig> getLoginFailConfig(Map<String, String> okapiHeaders) {
+    Future<JsonObject> attemptsFut = getLoginConfig(LOGIN_ATTEMPTS_CODE, okapiHeaders);
+    Future<JsonObject> timeoutFut = getLoginConfig(LOGIN_ATTEMPTS_TIMEOUT_CODE, okapiHeaders);
+    return Future.join(attemptsFut, timeoutFut)
+        .transform(x -> Future.succeededFuture(new LoginFailConfig(
+            getValue(attemptsFut, LOGIN_ATTEMPTS_CODE, 5),
+            getValue(timeoutFut, LOGIN_ATTEMPTS_TIMEOUT_CODE, 10))));
+  }
+
+  /**
+   * @param maxAttempts number of failed logins within the window that block the user, 0 to never block
+   * @param timeoutMinutes length of the window
+   */
+  record LoginFailConfig(int maxAttempts, int timeoutMinutes) {
   }
 
   static int getValue(AsyncResult<JsonObject> res, String key, int defaultValue) {
@@ -162,23 +149,16 @@ public class LoginAttemptsHelper {
    * @return - json object with configs
    */
   private Future<JsonObject> getLoginConfig(String configCode, Map<String, String> okapiHeaders) {
-    String requestURL;
     String tenant = okapiHeaders.get(XOkapiHeaders.TENANT);
     String requestToken = okapiHeaders.get(XOkapiHeaders.TOKEN);
     String okapiUrl = okapiHeaders.get(XOkapiHeaders.URL);
 
-    requestURL = okapiUrl + "/configurations/entries?query=" + PercentCodec.encode("code==" + configCode);
-    HttpRequest<Buffer> request = WebClientFactory.getWebClient(vertx).getAbs(requestURL);
-    request.putHeader(XOkapiHeaders.TENANT, tenant)
-      .putHeader(XOkapiHeaders.TOKEN, requestToken);
-    return request
-      .expect(ResponsePredicate.JSON)
-      .expect(ResponsePredicate.SC_OK)
-      .send().map(res -> {
-      JsonObject resultObject = res.bodyAsJsonObject();
-      JsonArray configs = resultObject.getJsonArray("configs");
-      return configs.isEmpty() ? new JsonObject() : configs.getJsonObject(0);
-    });
+    String pathAndQuery = "/configurations/entries?query=" + PercentCodec.encode("code==" + configCode);
+    return ConfigCache.getEntries(vertx, okapiUrl, requestToken, tenant, pathAndQuery)
+      .map(resultObject -> {
+        JsonArray configs = resultObject.getJsonArray("configs");
+        return configs.isEmpty() ? new JsonObject() : configs.getJsonObject(0);
+      });
   }
 
   /**
@@ -205,61 +185,110 @@ public class LoginAttemptsHelper {
    *
    * @param userObject         - Json user object
    * @param requestHeaders     - request headers
-   * @param attempts           - login attempts list for given user
+   * @return - succeeds when the failed login has been recorded and, if needed, the user has been blocked;
+   *           failures are only logged
    */
-  public void onLoginFailAttemptHandler(JsonObject userObject, Map<String, String> requestHeaders) {
+  public Future<Void> onLoginFailAttemptHandler(JsonObject userObject, Map<String, String> requestHeaders) {
+    var userId = userObject.getString("id");
+    var tenant = requestHeaders.get(XOkapiHeaders.TENANT);
+    var counter = FailedLoginCounter.get(vertx);
+    var future = counter == null
+        ? storeFailedLogin(userObject, requestHeaders)
+        : countFailedLogin(counter, userObject, requestHeaders);
+
+    logEvent(tenant, userId, LogEvent.EventType.FAILED_LOGIN_ATTEMPT, requestHeaders);
+
+    return future.recover(e -> {
+      logger.error("{}", e.getMessage(), e);
+      return Future.succeededFuture();
+    });
+  }
+
+  private Future<Void> storeFailedLogin(JsonObject userObject, Map<String, String> requestHeaders) {
     var userId = userObject.getString("id");
     var tenant = requestHeaders.get(XOkapiHeaders.TENANT);
-    AtomicReference<LoginAttempts> loginAttempts = new AtomicReference<>(buildLoginAttemptsObject(userId, 1));
-    var id = loginAttempts.get().getId();
-    var jsonb = JsonObject.mapFrom(loginAttempts.get());
+    var loginAttempts = buildLoginAttemptsObject(userId, 1);
+    var id = loginAttempts.getId();
+    var jsonb = JsonObject.mapFrom(loginAttempts);
     var pgClient = PostgresClient.getInstance(vertx, tenant);
 
     // atomic upsert to prevent any race condition,
     // there were sporadic failures in EventsLoggingTest.testUserBlock
-    pgClient.execute("""
-                     INSERT INTO auth_attempts (id, jsonb) VALUES ($1, $2)
-                       ON CONFLICT (lower(f_unaccent(jsonb ->> 'userId')))
-                       DO UPDATE set jsonb=jsonb_set(jsonb_set(auth_attempts.jsonb,
-                         '{attemptCount}', to_jsonb((auth_attempts.jsonb->'attemptCount')::bigint+1)),
-                         '{lastAttempt}', excluded.jsonb->'lastAttempt')
-                       RETURNING jsonb::text
-                     """, Tuple.of(id, jsonb))
+    return getLoginFailConfig(requestHeaders)
+    .compose(config -> SqlStatements.execute(vertx, tenant, SqlStatement.LOGIN_ATTEMPTS_FAIL,
+        Tuple.of(id, jsonb, config.timeoutMinutes(), config.maxAttempts())))
     .compose(rowSet -> {
-      var newJsonb = rowSet.iterator().next().getString(0);
-      loginAttempts.set(Json.decodeValue(newJsonb, LoginAttempts.class));
-      return needToUserBlock(loginAttempts.get(), requestHeaders);
-    })
-    .onSuccess(needBlock -> {
-      if (Boolean.TRUE.equals(needBlock)) {
-        blockUser(userObject, requestHeaders, loginAttempts.get(), userId, pgClient);
+      var row = rowSet.iterator().next();
+      if (!Boolean.TRUE.equals(row.getBoolean(1))) {
+        return Future.succeededFuture();
       }
-    })
-    .onFailure(e -> logger.error("{}", e.getMessage(), e));
+      var attempt = Json.decodeValue(row.getString(0), LoginAttempts.class);
+      return blockUser(userObject, requestHeaders, userId, () -> {
+        attempt.setAttemptCount(0);
+        attempt.setLastAttempt(new Date());
+        return updateAttempt(pgClient, attempt);
+      });
+    });
+  }
+
+  /**
+   * Count the failed login in memory, the counter stores it in auth_attempts later.
+   */
+  private Future<Void> countFailedLogin(FailedLoginCounter counter, JsonObject userObject,
+                                        Map<String, String> requestHeaders) {
+
+    var userId = userObject.getString("id");
+    var tenant = requestHeaders.get(XOkapiHeaders.TENANT);
+    return getLoginFailConfig(requestHeaders)
+    .compose(config -> {
+      long window = TimeUnit.MINUTES.toMillis(config.timeoutMinutes());
+      return counter.add(tenant, userId, window, config.maxAttempts(), () -> getAttempts(tenant, userId))
+        .compose(count -> {
+          if (config.maxAttempts() == 0 || count < config.maxAttempts()) {
+            return Future.succeededFuture();
+          }
+          return blockUser(userObject, requestHeaders, userId, () -> {
+            counter.reset(tenant, userId);
+            return resetAttempts(tenant, userId);
+          });
+        });
+    });
+  }
 
-    logStorageService.logEvent(tenant, userId, LogEvent.EventType.FAILED_LOGIN_ATTEMPT,
-        LoginConfigUtils.encodeJsonHeaders(requestHeaders));
+  private Future<LoginAttempts> getAttempts(String tenant, String userId) {
+    return SqlStatements.execute(vertx, tenant, SqlStatement.LOGIN_ATTEMPTS_GET, Tuple.of(userId))
+        .map(rowSet -> {
+          if (rowSet.size() == 0) {
+            return null;
+          }
+          return Json.decodeValue(rowSet.iterator().next().getString(0), LoginAttempts.class);
+        });
   }
 
-  private Future<Void> blockUser(JsonObject userObject, Map<String, String> requestHeaders, LoginAttempts attempt,
-                                 String userId, PostgresClient pgClient) {
+  private Future<Void> blockUser(JsonObject userObject, Map<String, String> requestHeaders, String userId,
+                                 Supplier<Future<Void>> resetAttempts) {
 
     JsonObject user = userObject.copy();
     user.put("active", false);
     return updateUser(user, requestHeaders)
       .compose(v -> {
         String tenant = requestHeaders.get(XOkapiHeaders.TENANT);
-        logStorageService.logEvent(tenant, userId, LogEvent.EventType.USER_BLOCK,
-            LoginConfigUtils.encodeJsonHeaders(requestHeaders));
-
-        attempt.setAttemptCount(0);
-        attempt.setLastAttempt(new Date());
+        UserServiceImpl.invalidateUser(vertx, tenant, userObject);
+        logEvent(tenant, userId, LogEvent.EventType.USER_BLOCK, requestHeaders);
 
-        return updateAttempt(pgClient, attempt)
-          .map(updateResult -> null);
+        return resetAttempts.get();
       });
   }
 
+  /**
+   * Send the event to the event log unless the event type is known to be disabled for the tenant.
+   */
+  private void logEvent(String tenant, String userId, LogEvent.EventType eventType, Map<String, String> requestHeaders) {
+    if (EventLogTypes.get(vertx).isEnabled(tenant, eventType)) {
+      logStorageService.logEvent(tenant, userId, eventType, LoginConfigUtils.encodeJsonHeaders(requestHeaders));
+    }
+  }
+
   /**
    * Handle users success login
    *
@@ -271,21 +300,22 @@ public class LoginAttemptsHelper {
 
     var userId = userObject.getString("id");
     var tenant = requestHeaders.get(XOkapiHeaders.TENANT);
+    var counter = FailedLoginCounter.get(vertx);
+    if (counter != null) {
+      counter.reset(tenant, userId);
+    }
+    var future = resetAttempts(tenant, userId);
+
+    logEvent(tenant, userId, LogEvent.EventType.SUCCESSFUL_LOGIN_ATTEMPT, requestHeaders);
+
+    return future;
+  }
+
+  private Future<Void> resetAttempts(String tenant, String userId) {
     var loginAttempts = buildLoginAttemptsObject(userId, 0);
     var id = loginAttempts.getId();
     var jsonb = JsonObject.mapFrom(loginAttempts);
-    // atomic upsert to prevent any race condition
-    var future = PostgresClient.getInstance(vertx, tenant)
-        .execute("""
-                 INSERT INTO auth_attempts (id, jsonb) VALUES ($1, $2)
-                   ON CONFLICT (lower(f_unaccent(jsonb ->> 'userId')))
-                   DO UPDATE set jsonb=excluded.jsonb;
-                 """, Tuple.of(id, jsonb))
-        .<Void>mapEmpty();
-
-    logStorageService.logEvent(tenant, userId, LogEvent.EventType.SUCCESSFUL_LOGIN_ATTEMPT,
-        LoginConfigUtils.encodeJsonHeaders(requestHeaders));
-
-    return future;
+    return SqlStatements.execute(vertx, tenant, SqlStatement.LOGIN_ATTEMPTS_RESET, Tuple.of(id, jsonb, userId))
+        .mapEmpty();
   }
 }
@@ -4,11 +4,16 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.json.JsonObject;
 import org.apache.commons.collections4.map.CaseInsensitiveMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.folio.rest.jaxrs.resource.support.ResponseDelegate;
 
 import javax.ws.rs.core.Response;
+import java.util.HashMap;
 import java.util.Map;
 
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
 public class LoginConfigUtils {
 
   /**
@@ -32,6 +37,8 @@ public class LoginConfigUtils {
   public static final String VALUE_IS_NOT_FOUND = "isNotFound";
   public static final JsonObject EMPTY_JSON_OBJECT = new JsonObject().put(VALUE_IS_NOT_FOUND, true);
 
+  private static final Logger logger = LogManager.getLogger(LoginConfigUtils.class);
+
   private LoginConfigUtils() {
     //not called
   }
@@ -45,11 +52,29 @@ public class LoginConfigUtils {
   }
 
   public static JsonObject encodeJsonHeaders(Map<String,String> headers) {
-    return JsonObject.mapFrom(headers);
+    return new JsonObject(new HashMap<>(headers));
   }
 
   public static Map<String,String> decodeJsonHeaders(JsonObject obj) {
-    return obj.mapTo(CaseInsensitiveMap.class);
+    Map<String,String> headers = new CaseInsensitiveMap<>(obj.size());
+    obj.forEach(entry -> headers.put(entry.getKey(), entry.getValue() == null ? null : entry.getValue().toString()));
+    return headers;
+  }
+
+  /**
+   * @return the integer value of the module argument, defaultValue if not set or not an integer
+   */
+  public static int getIntModuleArg(String key, int defaultValue) {
+    var arg = MODULE_SPECIFIC_ARGS.get(key);
+    if (arg == null) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(arg);
+    } catch (NumberFormatException e) {
+      logger.error("Expected integer but the value for module argument '{}' is '{}'", key, arg, e);
+      return defaultValue;
+    }
   }
 
 }
@@ -0,0 +1,121 @@
+package org.folio.util;
+
+import static org.folio.util.LoginConfigUtils.getIntModuleArg;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.vertx.core.Vertx;
+
+/**
+ * Rate limit of login attempts by client IP and by username, checked before any lookup
+ * or password hashing.
+ *
+ * <p>Each key has a token bucket that allows {@code burst} attempts at once and refills at
+ * {@code rate} attempts per minute. A bucket is a single AtomicLong holding the time when it
+ * will be full again (GCRA), updated by compare-and-set without locking. The least recently
+ * used buckets are dropped when there are more than {@code login.throttle.size} of them per
+ * limit; a dropped bucket starts full again.
+ *
+ * <p>The client IP is the X-Forwarded-For header as logged in the event log, or the
+ * X-Okapi-Request-Ip header if missing.
+ */
+public class LoginThrottle {
+
+  public static final String IP_RATE = "login.throttle.ip.rate";
+  public static final String IP_BURST = "login.throttle.ip.burst";
+  public static final String USERNAME_RATE = "login.throttle.username.rate";
+  public static final String USERNAME_BURST = "login.throttle.username.burst";
+  public static final String SIZE = "login.throttle.size";
+  private static final int DEFAULT_SIZE = 100000;
+  private static final Map<Vertx, LoginThrottle> throttles = new ConcurrentHashMap<>();
+
+  private final Limiter ipLimiter;
+  private final Limiter usernameLimiter;
+
+  LoginThrottle(int ipRate, int ipBurst, int usernameRate, int usernameBurst, int size) {
+    ipLimiter = ipRate > 0 ? new Limiter(ipRate, ipBurst, size) : null;
+    usernameLimiter = usernameRate > 0 ? new Limiter(usernameRate, usernameBurst, size) : null;
+  }
+
+  /**
+   * Create the throttle of the Vertx if enabled by module argument.
+   * Calling this method more than once with the same Vertx has no effect.
+   */
+  public static synchronized void init(Vertx vertx) {
+    int ipRate = getIntModuleArg(IP_RATE, 0);
+    int usernameRate = getIntModuleArg(USERNAME_RATE, 0);
+    if ((ipRate > 0 || usernameRate > 0) && !throttles.containsKey(vertx)) {
+      throttles.put(vertx, new LoginThrottle(ipRate, getIntModuleArg(IP_BURST, ipRate),
+          usernameRate, getIntModuleArg(USERNAME_BURST, usernameRate), getIntModuleArg(SIZE, DEFAULT_SIZE)));
+    }
+  }
+
+  /**
+   * @return the throttle of the Vertx, null if disabled
+   */
+  public static LoginThrottle get(Vertx vertx) {
+    return vertx == null ? null : throttles.get(vertx);
+  }
+
+  /**
+   * Take a token from the IP bucket and then from the username bucket.
+   *
+   * @param ip client IP, may be null
+   * @param username username or, if the login uses a userId, the userId
+   * @return 0 if the attempt is allowed, otherwise the seconds to wait
+   */
+  public int acquire(String tenant, String ip, String username) {
+    long now = System.nanoTime();
+    long wait = 0;
+    if (ipLimiter != null && ip != null) {
+      wait = ipLimiter.acquire(tenant + ":" + ip, now);
+    }
+    if (wait == 0 && usernameLimiter != null && username != null) {
+      wait = usernameLimiter.acquire(tenant + ":" + username.toLowerCase(Locale.ROOT), now);
+    }
+    if (wait == 0) {
+      return 0;
+    }
+    return (int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+  }
+
+  private static final class Limiter {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    Limiter(int perMinute, int burst, int size) {
+      intervalNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+      burstNanos = intervalNanos * Math.max(1, burst);
+      buckets = CacheBuilder.newBuilder()
+          .maximumSize(size)
+          .expireAfterAccess(burstNanos, TimeUnit.NANOSECONDS)
+          .build();
+    }
+
+    /**
+     * @return 0 if a token has been taken, otherwise the nanoseconds until one is available
+     */
+    long acquire(String key, long now) {
+      AtomicLong full = buckets.asMap().computeIfAbsent(key, x -> new AtomicLong(now));
+      while (true) {
+        long current = full.get();
+        long next = Math.max(current, now) + intervalNanos;
+        long wait = next - now - burstNanos;
+        if (wait > 0) {
+          return wait;
+        }
+        if (full.compareAndSet(current, next)) {
+          return 0;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package org.folio.util;
+
+import java.util.Collection;
+
+/**
+ * A password hash algorithm together with its cost parameters.
+ *
+ * <p>The {@link #getId() id} is stored with each credential so that a credential
+ * can always be verified with the algorithm and parameters that produced it,
+ * see {@link PasswordHashers#forId(String)}.
+ */
+public interface PasswordHasher {
+
+  /**
+   * @return identifier of the algorithm and its cost parameters, for example
+   *   {@code PBKDF2WithHmacSHA256:210000:256}
+   */
+  String getId();
+
+  /**
+   * @param password the clear text password
+   * @param salt hex encoded salt
+   * @return hex encoded hash
+   */
+  String calculateHash(String password, String salt);
+
+  /**
+   * Timing-safe check of a password against a stored hash.
+   *
+   * @param password the clear text password
+   * @param salt hex encoded salt
+   * @param hash hex encoded stored hash
+   * @return true if the password matches, false if not or if the stored hash is not valid hex
+   */
+  boolean verify(String password, String salt, String hash);
+
+  /**
+   * Timing-safe check of a password against stored hashes that have the same salt.
+   *
+   * @param password the clear text password
+   * @param salt hex encoded salt
+   * @param hashes hex encoded stored hashes
+   * @return true if the password matches any of the hashes
+   */
+  default boolean verifyAny(String password, String salt, Collection<String> hashes) {
+    return hashes.stream().anyMatch(hash -> verify(password, salt, hash));
+  }
+
+  /**
+   * @return new random hex encoded salt
+   */
+  String getSalt();
+}
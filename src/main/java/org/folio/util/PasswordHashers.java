@@ -0,0 +1,156 @@
+package org.folio.util;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.crypto.Mac;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+
+/**
+ * Registry of the {@link PasswordHasher} implementations and lookup of the
+ * per-tenant target hash profile.
+ *
+ * <p>A hasher id has the form {@code <algorithm>:<iterations>:<keyLength>}, for example
+ * {@code PBKDF2WithHmacSHA512:210000:512}. Credentials without id were created with
+ * the {@link #LEGACY_ID legacy} profile. A target profile needs at least
+ * {@value #MIN_ITERATIONS} iterations and a key of {@value #MIN_KEYLENGTH} bits.
+ */
+public final class PasswordHashers {
+
+  public static final String LEGACY_ID =
+      AuthUtil.DEFAULT_ALGORITHM + ":" + AuthUtil.DEFAULT_ITERATIONS + ":" + AuthUtil.DEFAULT_KEYLENGTH;
+  public static final String HASH_PROFILE_CODE = "password.hash.profile";
+  static final int MIN_ITERATIONS = AuthUtil.DEFAULT_ITERATIONS;
+  static final int MIN_KEYLENGTH = 128;
+  private static final String ALGORITHM_PREFIX = "PBKDF2With";
+  private static final String HASH_PROFILE_CONF_PATH =
+      "/configurations/entries?query=" + PercentCodec.encode("code==" + HASH_PROFILE_CODE);
+
+  private static final Logger logger = LogManager.getLogger(PasswordHashers.class);
+  private static final Map<String, PasswordHasher> hashers = new ConcurrentHashMap<>();
+  private static final Map<String, Profile> profiles = new ConcurrentHashMap<>();
+
+  private PasswordHashers() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * @param id hasher id as stored in the credential, null or blank for the legacy profile
+   * @return the hasher for the id
+   * @throws IllegalArgumentException if the id is malformed or the algorithm is not supported
+   */
+  public static PasswordHasher forId(String id) {
+    return hashers.computeIfAbsent(StringUtils.isBlank(id) ? LEGACY_ID : id, PasswordHashers::create);
+  }
+
+  /**
+   * @param id hasher id of a profile for new and changed passwords
+   * @return the hasher for the id
+   * @throws IllegalArgumentException if the id is malformed, the algorithm is not supported
+   *   or the profile costs less than the minimum
+   */
+  static PasswordHasher forTargetId(String id) {
+    var profile = profile(StringUtils.isBlank(id) ? LEGACY_ID : id);
+    if (profile.iterations() < MIN_ITERATIONS || profile.keyLength() < MIN_KEYLENGTH) {
+      throw new IllegalArgumentException("Password hash profile " + id + " is below the minimum of "
+          + MIN_ITERATIONS + " iterations and " + MIN_KEYLENGTH + " bits");
+    }
+    return forId(id);
+  }
+
+  /**
+   * @return true if the target profile differs from the profile of the credential with the
+   *   hasher id and costs at least as much in iterations, key length and HMAC size; a rehash
+   *   never makes a credential cheaper to attack
+   */
+  public static boolean needsRehash(String id, PasswordHasher target) {
+    var stored = profile(StringUtils.isBlank(id) ? LEGACY_ID : id);
+    var wanted = profile(target.getId());
+    return !wanted.equals(stored)
+        && wanted.iterations() >= stored.iterations()
+        && wanted.keyLength() >= stored.keyLength()
+        && wanted.macLength() >= stored.macLength();
+  }
+
+  /**
+   * The module wide default profile from the {@code password.hash.profile} module argument,
+   * legacy profile if not set.
+   */
+  public static PasswordHasher getDefault() {
+    var id = MODULE_SPECIFIC_ARGS.get(HASH_PROFILE_CODE);
+    try {
+      return forTargetId(id);
+    } catch (IllegalArgumentException e) {
+      logger.error("Invalid module argument '{}': '{}'", HASH_PROFILE_CODE, id, e);
+      return forId(LEGACY_ID);
+    }
+  }
+
+  /**
+   * The hasher that new and upgraded credentials of the tenant use. This is the
+   * {@code password.hash.profile} mod-configuration entry of the tenant if present,
+   * the module wide default otherwise.
+   */
+  public static Future<PasswordHasher> getTarget(Vertx vertx, String okapiUrl, String token, String tenant) {
+    if (okapiUrl == null) {
+      return Future.succeededFuture(getDefault());
+    }
+    return ConfigCache.getEntries(vertx, okapiUrl, token, tenant, HASH_PROFILE_CONF_PATH)
+        .map(json -> {
+          JsonArray configs = json.getJsonArray("configs");
+          if (configs == null || configs.isEmpty()) {
+            return getDefault();
+          }
+          return forTargetId(configs.getJsonObject(0).getString("value"));
+        })
+        .otherwise(e -> {
+          logger.debug("Using default password hash profile for tenant {}: {}", tenant, e.getMessage());
+          return getDefault();
+        });
+  }
+
+  private static PasswordHasher create(String id) {
+    var profile = profile(id);
+    return new AuthUtil(profile.algorithm(), profile.iterations(), profile.keyLength());
+  }
+
+  private static Profile profile(String id) {
+    return profiles.computeIfAbsent(id, Profile::parse);
+  }
+
+  /**
+   * The parts of a hasher id.
+   *
+   * @param macLength output length of the HMAC in bytes
+   */
+  private record Profile(String algorithm, int iterations, int keyLength, int macLength) {
+
+    static Profile parse(String id) {
+      String[] parts = id.split(":");
+      if (parts.length != 3 || !parts[0].startsWith(ALGORITHM_PREFIX)) {
+        throw new IllegalArgumentException("Unsupported password hash profile: " + id);
+      }
+      int iterations = Integer.parseInt(parts[1]);
+      int keyLength = Integer.parseInt(parts[2]);
+      if (iterations < 1 || keyLength < 8 || keyLength % 8 != 0) {
+        throw new IllegalArgumentException("Invalid cost parameters in password hash profile: " + id);
+      }
+      try {
+        // fail early on an unknown algorithm without running a key derivation
+        int macLength = Mac.getInstance(parts[0].substring(ALGORITHM_PREFIX.length())).getMacLength();
+        return new Profile(parts[0], iterations, keyLength, macLength);
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalArgumentException("Unsupported password hash profile: " + id, e);
+      }
+    }
+  }
+}
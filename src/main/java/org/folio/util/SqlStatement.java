@@ -0,0 +1,209 @@
+package org.folio.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Catalogue of the SQL statements of the login, password and failed login paths and of
+ * the event log.
+ *
+ * <p>The templates use {@code {schema}} for the tenant schema. The text of a statement is
+ * built once per schema and is the same on every call, so that a connection with a
+ * prepared statement cache parses and plans it only once. {@link SqlStatements} runs them.
+ */
+public enum SqlStatement {
+
+  /**
+   * The id, hash, salt and hash algorithm of the credential of a UUID userId.
+   */
+  CREDENTIAL_BY_USER_ID("""
+      SELECT id, jsonb->>'hash', jsonb->>'salt', jsonb->>'hashAlgorithm' FROM {schema}.auth_credentials
+        WHERE user_id = $1
+      """),
+
+  /**
+   * Same as {@link #CREDENTIAL_BY_USER_ID} for a userId that is not a UUID.
+   */
+  CREDENTIAL_BY_USER_ID_TEXT("""
+      SELECT id, jsonb->>'hash', jsonb->>'salt', jsonb->>'hashAlgorithm' FROM {schema}.auth_credentials
+        WHERE lower({schema}.f_unaccent(jsonb->>'userId')) = lower({schema}.f_unaccent($1))
+      """),
+
+  /**
+   * Insert the credentials of a JSON array; skips a credential if the user already has one,
+   * also if it is earlier in the same array. Returns the ids of the inserted credentials.
+   */
+  CREDENTIAL_INSERT_BATCH("""
+      INSERT INTO {schema}.auth_credentials (id, jsonb)
+        SELECT (credential->>'id')::uuid, credential FROM jsonb_array_elements($1::jsonb) AS credential
+        ON CONFLICT DO NOTHING
+        RETURNING id
+      """),
+
+  /**
+   * Replace hash, salt and hash algorithm of a credential if it still has the old hash.
+   */
+  CREDENTIAL_REHASH("""
+      UPDATE {schema}.auth_credentials SET jsonb = jsonb || $1
+        WHERE id = $2 AND jsonb->>'hash' = $3
+      """),
+
+  /**
+   * The current credential and the newest history records of a user; the history is filtered
+   * and sorted by the generated user_id and date columns so that it is read from their index.
+   * The history is read whether or not the user has a current credential.
+   */
+  CREDENTIAL_AND_HISTORY("""
+      WITH cred AS (
+        SELECT jsonb FROM {schema}.auth_credentials
+          WHERE lower({schema}.f_unaccent(jsonb->>'userId')) = lower({schema}.f_unaccent($1))
+      )
+      SELECT jsonb->>'hashAlgorithm', jsonb->>'salt', jsonb->>'hash' FROM cred
+      UNION ALL
+      (SELECT jsonb->>'hashAlgorithm', jsonb->>'salt', jsonb->>'hash' FROM {schema}.auth_credentials_history
+        WHERE user_id = $1
+        ORDER BY date DESC LIMIT $2)
+      """),
+
+  /**
+   * Replace the credential, move the old one into the history and trim the history;
+   * the history DELETE doesn't see the INSERT of the same statement, it keeps one record less.
+   */
+  CREDENTIAL_ROTATE("""
+      WITH old AS (
+        SELECT id, jsonb FROM {schema}.auth_credentials
+          WHERE lower({schema}.f_unaccent(jsonb->>'userId')) = lower({schema}.f_unaccent($1))
+          FOR UPDATE
+      ), updated AS (
+        UPDATE {schema}.auth_credentials SET jsonb = $2::jsonb || jsonb_build_object('id', old.id)
+          FROM old WHERE auth_credentials.id = old.id
+      ), inserted AS (
+        INSERT INTO {schema}.auth_credentials_history (id, jsonb)
+          SELECT $3::uuid, $4::jsonb || jsonb_strip_nulls(jsonb_build_object(
+              'userId', $1::text, 'salt', old.jsonb->'salt', 'hash', old.jsonb->'hash',
+              'hashAlgorithm', old.jsonb->'hashAlgorithm'))
+          FROM old
+      ), trimmed AS (
+        DELETE FROM {schema}.auth_credentials_history WHERE id IN (
+          SELECT id FROM {schema}.auth_credentials_history
+            WHERE user_id = $1 AND EXISTS (SELECT FROM old)
+            ORDER BY date DESC OFFSET $5)
+      )
+      SELECT count(*) FROM old
+      """),
+
+  /**
+   * Insert the events of a JSON array, each with its id.
+   */
+  EVENT_LOGS_INSERT_BATCH("""
+      INSERT INTO {schema}.event_logs (id, jsonb)
+        SELECT (e->>'id')::uuid, e FROM jsonb_array_elements($1::jsonb) AS e
+      """),
+
+  /**
+   * Create the partitions of this and the next two months and drop those past the retention
+   * period; $1 is the retention days of the module argument.
+   */
+  EVENT_LOGS_MAINTAIN_PARTITIONS("""
+      SELECT {schema}.event_logs_maintain_partitions($1)
+      """),
+
+  /**
+   * Store the retention days of the tenant, null to use the module argument.
+   */
+  EVENT_LOGS_SET_RETENTION("""
+      INSERT INTO {schema}.event_logs_partitioning (retention_days) VALUES ($1)
+        ON CONFLICT (id) DO UPDATE SET retention_days = excluded.retention_days
+      """),
+
+  /**
+   * Count a failed login; a window starts with a failed login and lasts login.fail.timeout
+   * minutes, the count restarts with a failed login after the window or after a reset to 0.
+   * Returns the attempts and whether the user is to be blocked.
+   */
+  LOGIN_ATTEMPTS_FAIL("""
+      INSERT INTO {schema}.auth_attempts (id, jsonb, window_start) VALUES ($1, $2, now())
+        ON CONFLICT (lower({schema}.f_unaccent(jsonb ->> 'userId')))
+        DO UPDATE SET
+          window_start = CASE
+            WHEN auth_attempts.window_start IS NULL
+              OR auth_attempts.window_start <= now() - make_interval(mins => $3)
+              OR (auth_attempts.jsonb->>'attemptCount')::bigint = 0
+            THEN now() ELSE auth_attempts.window_start END,
+          jsonb = jsonb_set(jsonb_set(auth_attempts.jsonb,
+            '{attemptCount}', CASE
+              WHEN auth_attempts.window_start IS NULL
+                OR auth_attempts.window_start <= now() - make_interval(mins => $3)
+                OR (auth_attempts.jsonb->>'attemptCount')::bigint = 0
+              THEN '1'::jsonb
+              ELSE to_jsonb((auth_attempts.jsonb->>'attemptCount')::bigint + 1) END),
+            '{lastAttempt}', excluded.jsonb->'lastAttempt')
+        RETURNING jsonb::text, $4 > 0 AND (jsonb->>'attemptCount')::bigint >= $4
+      """),
+
+  /**
+   * Add the counts of a JSON array of login attempts, each of a different user, with the
+   * window of {@link #LOGIN_ATTEMPTS_FAIL}; $2 is the window length in milliseconds.
+   */
+  LOGIN_ATTEMPTS_FLUSH("""
+      INSERT INTO {schema}.auth_attempts (id, jsonb, window_start)
+        SELECT (attempts->>'id')::uuid, attempts, now() FROM jsonb_array_elements($1::jsonb) AS attempts
+        ON CONFLICT (lower({schema}.f_unaccent(jsonb ->> 'userId')))
+        DO UPDATE SET
+          window_start = CASE
+            WHEN auth_attempts.window_start IS NULL
+              OR auth_attempts.window_start <= now() - make_interval(secs => $2::float8 / 1000)
+              OR (auth_attempts.jsonb->>'attemptCount')::bigint = 0
+            THEN now() ELSE auth_attempts.window_start END,
+          jsonb = jsonb_set(jsonb_set(auth_attempts.jsonb,
+            '{attemptCount}', CASE
+              WHEN auth_attempts.window_start IS NULL
+                OR auth_attempts.window_start <= now() - make_interval(secs => $2::float8 / 1000)
+                OR (auth_attempts.jsonb->>'attemptCount')::bigint = 0
+              THEN excluded.jsonb->'attemptCount'
+              ELSE to_jsonb((auth_attempts.jsonb->>'attemptCount')::bigint
+                            + (excluded.jsonb->>'attemptCount')::bigint) END),
+            '{lastAttempt}', excluded.jsonb->'lastAttempt')
+      """),
+
+  /**
+   * The login attempts of a user.
+   */
+  LOGIN_ATTEMPTS_GET("""
+      SELECT jsonb::text FROM {schema}.auth_attempts
+        WHERE lower({schema}.f_unaccent(jsonb ->> 'userId')) = lower({schema}.f_unaccent($1))
+      """),
+
+  /**
+   * Reset a non-zero count, create a missing record; a user without failed attempts
+   * already has a zero count so the usual successful login doesn't write anything.
+   */
+  LOGIN_ATTEMPTS_RESET("""
+      WITH reset AS (
+        UPDATE {schema}.auth_attempts
+          SET jsonb = jsonb_set(jsonb_set(jsonb, '{attemptCount}', '0'),
+            '{lastAttempt}', $2::jsonb->'lastAttempt')
+          WHERE lower({schema}.f_unaccent(jsonb ->> 'userId')) = lower({schema}.f_unaccent($3))
+            AND (jsonb->>'attemptCount')::bigint <> 0
+      )
+      INSERT INTO {schema}.auth_attempts (id, jsonb) VALUES ($1, $2)
+        ON CONFLICT (lower({schema}.f_unaccent(jsonb ->> 'userId'))) DO NOTHING
+      """);
+
+  private static final String SCHEMA = "{schema}";
+
+  private final String template;
+  private final Map<String, String> sqlBySchema = new ConcurrentHashMap<>();
+
+  SqlStatement(String template) {
+    this.template = template;
+  }
+
+  /**
+   * @param schema the tenant schema, see {@code PostgresClient.convertToPsqlStandard}
+   * @return the statement on the tables of the schema
+   */
+  public String sql(String schema) {
+    return sqlBySchema.computeIfAbsent(schema, s -> template.replace(SCHEMA, s));
+  }
+}
@@ -0,0 +1,28 @@
+package org.folio.util;
+
+import org.folio.rest.persist.PostgresClient;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Runs the {@link SqlStatement} catalogue on the PostgresClient of the tenant, so that the
+ * statements use the connection settings and database role that RMB uses for the tenant.
+ */
+public class SqlStatements {
+
+  private SqlStatements() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * Run the statement in the tenant schema.
+   */
+  public static Future<RowSet<Row>> execute(Vertx vertx, String tenantId, SqlStatement statement, Tuple params) {
+    String sql = statement.sql(PostgresClient.convertToPsqlStandard(tenantId));
+    return PostgresClient.getInstance(vertx, tenantId).execute(sql, params);
+  }
+}
@@ -0,0 +1,89 @@
+package org.folio.util;
+
+import static org.folio.util.LoginConfigUtils.getIntModuleArg;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Bounded in-memory cache of values that belong to a tenant, entries expire
+ * a fixed time after they have been written.
+ *
+ * <p>The time to live and the maximum number of entries can be set with the
+ * {@code cache.<name>.ttl} (seconds) and {@code cache.<name>.size} module arguments.
+ * A time to live of 0 disables the cache.
+ */
+public class TenantCache<V> {
+
+  private final String name;
+  private final long ttlSeconds;
+  private final Cache<String, V> cache;
+
+  /**
+   * @param name cache name, also used for the module arguments
+   * @param defaultTtlSeconds time to live if the module argument is not set
+   * @param defaultSize maximum number of entries if the module argument is not set
+   */
+  public TenantCache(String name, int defaultTtlSeconds, int defaultSize) {
+    this.name = name;
+    this.ttlSeconds = Math.max(0, getIntModuleArg("cache." + name + ".ttl", defaultTtlSeconds));
+    this.cache = CacheBuilder.newBuilder()
+        .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+        .maximumSize(ttlSeconds == 0 ? 0 : getIntModuleArg("cache." + name + ".size", defaultSize))
+        .recordStats()
+        .build();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getTtlSeconds() {
+    return ttlSeconds;
+  }
+
+  /**
+   * @return the cached value, null if not present or expired
+   */
+  public V get(String tenant, String key) {
+    return cache.getIfPresent(key(tenant, key));
+  }
+
+  /**
+   * Like {@link #get(String, String)} but without counting a hit or miss.
+   */
+  public V peek(String tenant, String key) {
+    return cache.asMap().get(key(tenant, key));
+  }
+
+  public void put(String tenant, String key, V value) {
+    cache.put(key(tenant, key), value);
+  }
+
+  public void invalidate(String tenant, String key) {
+    cache.invalidate(key(tenant, key));
+  }
+
+  /**
+   * Remove all entries of the tenant.
+   */
+  public void invalidateTenant(String tenant) {
+    String prefix = key(tenant, "");
+    cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  private static String key(String tenant, String key) {
+    return tenant + ":" + key;
+  }
+}
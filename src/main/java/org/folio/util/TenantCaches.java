@@ -0,0 +1,50 @@
+package org.folio.util;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.vertx.core.Vertx;
+
+/**
+ * The {@link TenantCache} instances of a Vertx by name so that they can be
+ * inspected and invalidated by the admin API.
+ */
+public final class TenantCaches {
+
+  private static final Map<Vertx, Map<String, TenantCache<?>>> caches = new ConcurrentHashMap<>();
+
+  private TenantCaches() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * Get the cache, create it if it doesn't exist.
+   *
+   * @see TenantCache#TenantCache(String, int, int)
+   */
+  public static <V> TenantCache<V> get(Vertx vertx, String name, int defaultTtlSeconds, int defaultSize) {
+    return get(vertx, name, () -> new TenantCache<V>(name, defaultTtlSeconds, defaultSize));
+  }
+
+  /**
+   * Get the cache, create it with the factory if it doesn't exist.
+   */
+  @SuppressWarnings("unchecked")
+  public static <C extends TenantCache<?>> C get(Vertx vertx, String name, Supplier<C> factory) {
+    return (C) caches.computeIfAbsent(vertx, x -> new ConcurrentHashMap<>())
+        .computeIfAbsent(name, x -> factory.get());
+  }
+
+  /**
+   * @return the cache, or null if no cache with that name exists
+   */
+  public static TenantCache<?> find(Vertx vertx, String name) {
+    return caches.getOrDefault(vertx, Map.of()).get(name);
+  }
+
+  public static Collection<TenantCache<?>> getAll(Vertx vertx) {
+    return caches.getOrDefault(vertx, Map.of()).values();
+  }
+}
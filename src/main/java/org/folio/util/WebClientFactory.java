@@ -3,20 +3,48 @@ package org.folio.util;
 import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
 import static org.folio.util.Constants.DEFAULT_TIMEOUT;
 import static org.folio.util.Constants.LOOKUP_TIMEOUT;
+import static org.folio.util.LoginConfigUtils.getIntModuleArg;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.ext.web.client.impl.WebClientInternal;
 
 public class WebClientFactory {
 
-  private static Map<Vertx, WebClient> clients = new HashMap<>();
+  public static final String HTTP_MAX_POOL_SIZE = "http.max-pool-size";
+  public static final String HTTP_MAX_WAIT_QUEUE_SIZE = "http.max-wait-queue-size";
+  public static final String HTTP_KEEP_ALIVE_TIMEOUT = "http.keep-alive-timeout";
+  public static final String HTTP_PIPELINING_LIMIT = "http.pipelining-limit";
+  public static final String HTTP_H2C = "http.h2c";
+  private static final int DEFAULT_MAX_POOL_SIZE = 20;
+  private static final int DEFAULT_MAX_WAIT_QUEUE_SIZE = 200;
+  private static final int DEFAULT_KEEP_ALIVE_TIMEOUT = 60;
+
+  private static Map<Vertx, WebClient> clients = new ConcurrentHashMap<>();
+  private static Map<Vertx, WebClientOptions> clientOptions = new ConcurrentHashMap<>();
+  private static Map<Vertx, HttpClientStats> clientStats = new ConcurrentHashMap<>();
 
   public static WebClient getWebClient(Vertx vertx) {
-    return clients.get(vertx);
+    return vertx == null ? null : clients.get(vertx);
+  }
+
+  /**
+   * @return the options of the WebClient of the Vertx, null if not initialized
+   */
+  public static WebClientOptions getWebClientOptions(Vertx vertx) {
+    return vertx == null ? null : clientOptions.get(vertx);
+  }
+
+  /**
+   * @return the counters of the WebClient of the Vertx, null if not initialized
+   */
+  public static HttpClientStats getStats(Vertx vertx) {
+    return vertx == null ? null : clientStats.get(vertx);
   }
 
   private WebClientFactory() {
@@ -26,16 +54,45 @@ public class WebClientFactory {
    * Initializes a WebClient for the provided Vertx.
    * Calling this method more than once with the same Vertx has no effect.
    *
+   * <p>All requests go to Okapi, therefore the per-destination pool limits are the
+   * limits of the client.
+   *
    * @param vertx
    */
   public static synchronized void init(Vertx vertx) {
     if (vertx != null && !clients.containsKey(vertx)) {
-      int lookupTimeout = Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(LOOKUP_TIMEOUT, DEFAULT_TIMEOUT));
+      WebClientOptions options = createOptions();
+      WebClient client = WebClient.create(vertx, options);
+      HttpClientStats stats = new HttpClientStats();
+      ((WebClientInternal) client).addInterceptor(stats);
+      clientOptions.put(vertx, options);
+      clientStats.put(vertx, stats);
+      clients.put(vertx, client);
+    }
+  }
+
+  static WebClientOptions createOptions() {
+    int lookupTimeout = Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(LOOKUP_TIMEOUT, DEFAULT_TIMEOUT));
+    int maxPoolSize = getIntModuleArg(HTTP_MAX_POOL_SIZE, DEFAULT_MAX_POOL_SIZE);
+    int pipeliningLimit = getIntModuleArg(HTTP_PIPELINING_LIMIT, 0);
 
-      WebClientOptions options = new WebClientOptions();
-      options.setConnectTimeout(lookupTimeout);
-      options.setIdleTimeout(lookupTimeout);
-      clients.put(vertx, WebClient.create(vertx, options));
+    WebClientOptions options = new WebClientOptions();
+    options.setConnectTimeout(lookupTimeout);
+    options.setIdleTimeout(lookupTimeout);
+    options.setMaxPoolSize(maxPoolSize);
+    options.setMaxWaitQueueSize(getIntModuleArg(HTTP_MAX_WAIT_QUEUE_SIZE, DEFAULT_MAX_WAIT_QUEUE_SIZE));
+    options.setKeepAlive(true);
+    options.setKeepAliveTimeout(getIntModuleArg(HTTP_KEEP_ALIVE_TIMEOUT, DEFAULT_KEEP_ALIVE_TIMEOUT));
+    if (pipeliningLimit > 0) {
+      options.setPipelining(true);
+      options.setPipeliningLimit(pipeliningLimit);
+    }
+    if (Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.get(HTTP_H2C))) {
+      options.setProtocolVersion(HttpVersion.HTTP_2);
+      options.setHttp2ClearTextUpgrade(false);
+      options.setHttp2MaxPoolSize(Math.max(1, maxPoolSize / 4));
+      options.setHttp2KeepAliveTimeout(options.getKeepAliveTimeout());
     }
+    return options;
   }
 }
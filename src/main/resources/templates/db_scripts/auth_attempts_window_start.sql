@@ -0,0 +1,5 @@
+-- Start of the current window of failed logins, maintained by the failed login upsert.
+-- It is only read from the row of the userId, an index on it would only slow down the upsert
+-- and prevent HOT updates; drop the index that earlier snapshots created.
+ALTER TABLE ${myuniversity}_${mymodule}.auth_attempts ADD COLUMN IF NOT EXISTS window_start timestamptz;
+DROP INDEX IF EXISTS ${myuniversity}_${mymodule}.auth_attempts_window_start_idx;
@@ -0,0 +1,7 @@
+-- userId and date of the password history records as columns so that the history of a user,
+-- newest first, is read from an index
+ALTER TABLE ${myuniversity}_${mymodule}.auth_credentials_history
+  ADD COLUMN IF NOT EXISTS user_id text GENERATED ALWAYS AS (jsonb->>'userId') STORED,
+  ADD COLUMN IF NOT EXISTS date text GENERATED ALWAYS AS (jsonb->>'date') STORED;
+CREATE INDEX IF NOT EXISTS auth_credentials_history_user_id_date_idx
+  ON ${myuniversity}_${mymodule}.auth_credentials_history (user_id, date DESC);
@@ -0,0 +1,7 @@
+-- userId of the credential as uuid column for the login lookup; NULL if the userId is not a UUID
+ALTER TABLE ${myuniversity}_${mymodule}.auth_credentials
+  ADD COLUMN IF NOT EXISTS user_id uuid GENERATED ALWAYS AS (
+    CASE WHEN jsonb->>'userId' ~* '^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$'
+    THEN (jsonb->>'userId')::uuid END) STORED;
+CREATE INDEX IF NOT EXISTS auth_credentials_user_id_idx
+  ON ${myuniversity}_${mymodule}.auth_credentials (user_id);
@@ -0,0 +1,102 @@
+-- event_logs partitioned by month of event_time, the time the event has been stored;
+-- events stored before the migration get their timestamp.
+-- Runs before the schema.json tables so that RMB finds the partitioned table and only
+-- adds its columns, triggers and non-unique indexes.
+
+CREATE TABLE IF NOT EXISTS ${myuniversity}_${mymodule}.event_logs_partitioning (
+  id boolean PRIMARY KEY DEFAULT true CHECK (id),
+  retention_days integer
+);
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.event_logs_create_partition(event_month timestamptz)
+RETURNS void AS $$
+DECLARE
+  from_time timestamptz := date_trunc('month', event_month AT TIME ZONE 'UTC') AT TIME ZONE 'UTC';
+  to_time timestamptz := (date_trunc('month', event_month AT TIME ZONE 'UTC') + interval '1 month') AT TIME ZONE 'UTC';
+BEGIN
+  EXECUTE format('CREATE TABLE IF NOT EXISTS %I.%I PARTITION OF %I.event_logs FOR VALUES FROM (%L) TO (%L)',
+      '${myuniversity}_${mymodule}', 'event_logs_' || to_char(from_time AT TIME ZONE 'UTC', 'YYYYMM'),
+      '${myuniversity}_${mymodule}', from_time, to_time);
+EXCEPTION WHEN check_violation THEN
+  -- the default partition has rows of that month, they stay there
+  RAISE NOTICE 'event_logs partition of % not created: %', from_time, SQLERRM;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Create the partitions of this and the next two months, and drop the partitions that
+-- end before the retention period; retention_days of event_logs_partitioning overrides
+-- default_retention_days, 0 or less keeps all partitions.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.event_logs_maintain_partitions(default_retention_days integer)
+RETURNS void AS $$
+DECLARE
+  retention integer;
+  cutoff timestamptz;
+  part record;
+BEGIN
+  PERFORM pg_advisory_xact_lock(hashtext('${myuniversity}_${mymodule}.event_logs_partitions'));
+  FOR i IN 0..2 LOOP
+    PERFORM ${myuniversity}_${mymodule}.event_logs_create_partition(now() + make_interval(months => i));
+  END LOOP;
+  SELECT coalesce(retention_days, default_retention_days) INTO retention
+    FROM ${myuniversity}_${mymodule}.event_logs_partitioning;
+  retention := coalesce(retention, default_retention_days);
+  IF retention IS NULL OR retention <= 0 THEN
+    RETURN;
+  END IF;
+  cutoff := now() - make_interval(days => retention);
+  FOR part IN
+    SELECT c.relname FROM pg_inherits i
+      JOIN pg_class c ON c.oid = i.inhrelid
+      WHERE i.inhparent = '${myuniversity}_${mymodule}.event_logs'::regclass
+        AND c.relname ~ '^event_logs_[0-9]{6}$'
+  LOOP
+    IF (to_timestamp(substr(part.relname, 12), 'YYYYMM')::timestamp AT TIME ZONE 'UTC') + interval '1 month' <= cutoff THEN
+      EXECUTE format('DROP TABLE %I.%I', '${myuniversity}_${mymodule}', part.relname);
+    END IF;
+  END LOOP;
+  DELETE FROM ${myuniversity}_${mymodule}.event_logs_default WHERE event_time < cutoff;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+BEGIN
+  IF EXISTS (SELECT 1 FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace
+             WHERE n.nspname = '${myuniversity}_${mymodule}' AND c.relname = 'event_logs' AND c.relkind = 'r') THEN
+    ALTER TABLE ${myuniversity}_${mymodule}.event_logs RENAME TO event_logs_unpartitioned;
+  END IF;
+END $$;
+
+CREATE TABLE IF NOT EXISTS ${myuniversity}_${mymodule}.event_logs (
+  id uuid NOT NULL,
+  jsonb jsonb NOT NULL,
+  event_time timestamptz NOT NULL DEFAULT now(),
+  PRIMARY KEY (id, event_time)
+) PARTITION BY RANGE (event_time);
+
+CREATE TABLE IF NOT EXISTS ${myuniversity}_${mymodule}.event_logs_default
+  PARTITION OF ${myuniversity}_${mymodule}.event_logs DEFAULT;
+
+-- order of the keyset pagination of GET /authn/log/events, newest first
+CREATE INDEX IF NOT EXISTS event_logs_event_time_id_idx
+  ON ${myuniversity}_${mymodule}.event_logs (event_time DESC, id DESC);
+
+SELECT ${myuniversity}_${mymodule}.event_logs_maintain_partitions(0);
+
+DO $$
+DECLARE
+  event_month timestamptz;
+BEGIN
+  IF to_regclass('${myuniversity}_${mymodule}.event_logs_unpartitioned') IS NULL THEN
+    RETURN;
+  END IF;
+  FOR event_month IN
+    SELECT DISTINCT date_trunc('month', coalesce((jsonb->>'timestamp')::timestamptz, now()))
+      FROM ${myuniversity}_${mymodule}.event_logs_unpartitioned
+  LOOP
+    PERFORM ${myuniversity}_${mymodule}.event_logs_create_partition(event_month);
+  END LOOP;
+  INSERT INTO ${myuniversity}_${mymodule}.event_logs (id, jsonb, event_time)
+    SELECT id, jsonb, coalesce((jsonb->>'timestamp')::timestamptz, now())
+      FROM ${myuniversity}_${mymodule}.event_logs_unpartitioned;
+  DROP TABLE ${myuniversity}_${mymodule}.event_logs_unpartitioned;
+END $$;
@@ -1,6 +1,8 @@
 package org.folio.logintest;
 
 import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.is;
 
 import java.io.UnsupportedEncodingException;
@@ -14,6 +16,7 @@ import org.folio.rest.RestVerticle;
 import org.folio.rest.jaxrs.model.TenantAttributes;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.tools.utils.NetworkUtils;
+import org.folio.util.ConfigCache;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -40,6 +43,7 @@ public class CrossTenantLoginTest {
   private static final String TENANT_OTHER = "other";
   private static final String CRED_PATH = "/authn/credentials";
   private static final String LOGIN_PATH = "/authn/login";
+  private static final String CACHE_PATH = "/authn/cache";
   private static final String adminId = "8bd684c1-bbc3-4cf1-bcf4-8013d02a94ce";
 
   final private JsonObject credsWithTenant1 = new JsonObject()
@@ -119,6 +123,8 @@ public class CrossTenantLoginTest {
     MODULE_SPECIFIC_ARGS.clear();
     MODULE_SPECIFIC_ARGS.putAll(moduleArgs);
     Mocks.resetConfigs();
+    ConfigCache.get(vertx).invalidateTenant(TENANT_DIKU);
+    ConfigCache.get(vertx).invalidateTenant(TENANT_OTHER);
     dBCleanupWithTenant(context, TENANT_DIKU);
     dBCleanupWithTenant(context, TENANT_OTHER);
   }
@@ -201,4 +207,49 @@ public class CrossTenantLoginTest {
       .body("errors[0].message", is("Wrong username or wrong password or account blocked"));
   }
 
+  @Test
+  public void cache() {
+    RestAssured.given()
+      .spec(specWithOtherTenant)
+      .body(credsWithTenant1.encode())
+      .when()
+      .post(CRED_PATH)
+      .then()
+      .statusCode(201);
+
+    for (int i = 0; i < 2; i++) {
+      RestAssured.given()
+        .spec(spec)
+        .body(credsWithTenant1.encode())
+        .when()
+        .post(LOGIN_PATH)
+        .then()
+        .statusCode(201);
+    }
+
+    RestAssured.given()
+      .spec(spec)
+      .when()
+      .get(CACHE_PATH)
+      .then()
+      .log().all()
+      .statusCode(200)
+      .body("caches.name", hasItems("user-tenants", "users", "users-not-found"))
+      .body("caches.find { it.name == 'user-tenants' }.hitCount", greaterThan(0));
+
+    RestAssured.given()
+      .spec(spec)
+      .when()
+      .delete(CACHE_PATH + "/user-tenants")
+      .then()
+      .statusCode(204);
+
+    RestAssured.given()
+      .spec(spec)
+      .when()
+      .delete(CACHE_PATH + "/foo")
+      .then()
+      .statusCode(404);
+  }
+
 }
@@ -12,9 +12,11 @@ import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.sqlclient.Tuple;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.http.HttpStatus;
 import org.folio.okapi.common.XOkapiHeaders;
@@ -26,6 +28,8 @@ import org.folio.rest.jaxrs.model.LogEvent;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.tools.utils.NetworkUtils;
+import org.folio.util.ConfigCache;
+import org.folio.util.EventLogPartitions;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Rule;
@@ -33,13 +37,18 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import javax.ws.rs.core.MediaType;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertTrue;
 import org.folio.rest.jaxrs.model.TenantAttributes;
 
@@ -88,6 +97,7 @@ public class LogEventsApiTest {
 
   @Before
   public void setUp(TestContext context) {
+    ConfigCache.get(vertx).invalidateTenant(TENANT_ID);
     PostgresClient.getInstance(vertx, TENANT_ID).delete(SNAPSHOTS_TABLE_EVENT_LOGS, new Criterion())
         .onComplete(context.asyncAssertSuccess());
   }
@@ -223,6 +233,177 @@ public class LogEventsApiTest {
       .statusCode(HttpStatus.SC_NO_CONTENT);
   }
 
+  @Test
+  public void testCursorPagination() {
+    int mockServerPort = userMockServer.port();
+    Config configGlobal = createConfig(EVENT_LOG_API_MODULE, EVENT_LOG_API_CODE_STATUS, true);
+    Config configReset = createConfig(EVENT_LOG_API_MODULE, LogEvent.EventType.PASSWORD_RESET.toString(), true);
+    initModConfigStub(mockServerPort, initLoggingConfigurations(configGlobal, configReset));
+    String okapiUrl = "http://localhost:" + mockServerPort;
+
+    for (int i = 0; i < 5; i++) {
+      JsonObject logEvent = getLogEvent(TENANT_ID, UUID.randomUUID().toString(),
+          LogEvent.EventType.PASSWORD_RESET.toString())
+          .put("timestamp", "2024-01-0" + (i % 3 + 1) + "T00:00:00.000+00:00");
+      requestPostLogEvent(logEvent, okapiUrl)
+        .then()
+        .statusCode(HttpStatus.SC_CREATED);
+    }
+
+    Set<String> ids = new HashSet<>();
+    String cursor = "*";
+    for (int page = 0; page < 3; page++) {
+      JsonObject body = new JsonObject(requestGetLogEvent(okapiUrl, "length=2&cursor=" + cursor)
+        .then()
+        .statusCode(HttpStatus.SC_OK)
+        .extract().body().asString());
+      assertEquals(5, (int) body.getInteger("totalRecords"));
+      body.getJsonArray("loggingEvent").forEach(event -> ids.add(((JsonObject) event).getString("id")));
+      cursor = body.getString("nextCursor");
+      assertEquals(page < 2, cursor != null);
+    }
+    assertEquals(5, ids.size());
+
+    String body = requestGetLogEvent(okapiUrl, "cursor=*&totalRecords=none&query=userId==foo")
+      .then()
+      .statusCode(HttpStatus.SC_OK)
+      .extract().body().asString();
+    assertEquals(new JsonObject().put("loggingEvent", new JsonArray()), new JsonObject(body));
+
+    requestGetLogEvent(okapiUrl, "cursor=foo")
+      .then()
+      .statusCode(HttpStatus.SC_BAD_REQUEST);
+
+    requestGetLogEvent(okapiUrl, "cursor=*&query=cql.allRecords=1 sortBy userId")
+      .then()
+      .statusCode(HttpStatus.SC_BAD_REQUEST);
+  }
+
+  @Test
+  public void testTimeBounds() {
+    int mockServerPort = userMockServer.port();
+    Config configGlobal = createConfig(EVENT_LOG_API_MODULE, EVENT_LOG_API_CODE_STATUS, true);
+    Config configReset = createConfig(EVENT_LOG_API_MODULE, LogEvent.EventType.PASSWORD_RESET.toString(), true);
+    initModConfigStub(mockServerPort, initLoggingConfigurations(configGlobal, configReset));
+    String okapiUrl = "http://localhost:" + mockServerPort;
+
+    String userId = UUID.randomUUID().toString();
+    for (int i = 0; i < 2; i++) {
+      requestPostLogEvent(getLogEvent(TENANT_ID, userId, LogEvent.EventType.PASSWORD_RESET.toString()), okapiUrl)
+        .then()
+        .statusCode(HttpStatus.SC_CREATED);
+    }
+
+    String hourAgo = OffsetDateTime.now(ZoneOffset.UTC).minusHours(1).toString();
+    String inAnHour = OffsetDateTime.now(ZoneOffset.UTC).plusHours(1).toString();
+    for (String paging : new String[] { "offset=0", "cursor=*" }) {
+      String query = paging + "&query=userId==" + userId;
+      assertEquals(2, countLogEvents(okapiUrl, query + "&from=" + hourAgo + "&to=" + inAnHour));
+      assertEquals(0, countLogEvents(okapiUrl, query + "&from=" + inAnHour));
+      assertEquals(0, countLogEvents(okapiUrl, query + "&to=" + hourAgo));
+
+      requestGetLogEvent(okapiUrl, paging + "&from=yesterday")
+        .then()
+        .statusCode(HttpStatus.SC_BAD_REQUEST);
+    }
+  }
+
+  private int countLogEvents(String okapiUrl, String queryString) {
+    JsonObject body = new JsonObject(requestGetLogEvent(okapiUrl, queryString)
+      .then()
+      .statusCode(HttpStatus.SC_OK)
+      .extract().body().asString());
+    assertEquals(body.getInteger("totalRecords"), (Integer) body.getJsonArray("loggingEvent").size());
+    return body.getJsonArray("loggingEvent").size();
+  }
+
+  @Test
+  public void testExport() {
+    int mockServerPort = userMockServer.port();
+    Config configGlobal = createConfig(EVENT_LOG_API_MODULE, EVENT_LOG_API_CODE_STATUS, true);
+    Config configReset = createConfig(EVENT_LOG_API_MODULE, LogEvent.EventType.PASSWORD_RESET.toString(), true);
+    initModConfigStub(mockServerPort, initLoggingConfigurations(configGlobal, configReset));
+    String okapiUrl = "http://localhost:" + mockServerPort;
+
+    String userId = UUID.randomUUID().toString();
+    for (int i = 0; i < 3; i++) {
+      JsonObject logEvent = getLogEvent(TENANT_ID, userId, LogEvent.EventType.PASSWORD_RESET.toString())
+          .put("browserInformation", "Mozilla/5.0 (X11; Linux x86_64), \"test\"");
+      requestPostLogEvent(logEvent, okapiUrl)
+        .then()
+        .statusCode(HttpStatus.SC_CREATED);
+    }
+
+    String ndjson = requestExportLogEvents(okapiUrl, "query=userId==" + userId)
+      .then()
+      .statusCode(HttpStatus.SC_OK)
+      .contentType("application/x-ndjson")
+      .extract().body().asString();
+    String[] lines = ndjson.split("\n");
+    assertEquals(3, lines.length);
+    for (String line : lines) {
+      assertEquals(userId, new JsonObject(line).getString("userId"));
+    }
+
+    String csv = requestExportLogEvents(okapiUrl, "format=csv&from=2000-01-01T00:00:00Z&query=userId==" + userId)
+      .then()
+      .statusCode(HttpStatus.SC_OK)
+      .contentType("text/csv")
+      .extract().body().asString();
+    lines = csv.split("\r\n");
+    assertEquals(4, lines.length);
+    assertEquals("id,eventType,tenant,userId,ip,browserInformation,timestamp", lines[0]);
+    assertTrue(lines[1].contains(",PASSWORD_RESET," + TENANT_ID + "," + userId + ","));
+    assertTrue(lines[1].contains(",\"Mozilla/5.0 (X11; Linux x86_64), \"\"test\"\"\","));
+
+    csv = requestExportLogEvents(okapiUrl, "format=csv&to=2000-01-01T00:00:00Z&query=userId==" + userId)
+      .then()
+      .statusCode(HttpStatus.SC_OK)
+      .extract().body().asString();
+    assertEquals("id,eventType,tenant,userId,ip,browserInformation,timestamp\r\n", csv);
+
+    requestExportLogEvents(okapiUrl, "from=yesterday")
+      .then()
+      .statusCode(HttpStatus.SC_BAD_REQUEST);
+
+    requestExportLogEvents(okapiUrl, "query=cql.allRecords=1 sortBy userId")
+      .then()
+      .statusCode(HttpStatus.SC_BAD_REQUEST);
+  }
+
+  @Test
+  public void testPartitionRetention(TestContext context) {
+    PostgresClient pgClient = PostgresClient.getInstance(vertx, TENANT_ID);
+    UUID oldId = UUID.randomUUID();
+    UUID newId = UUID.randomUUID();
+    pgClient.execute("SELECT event_logs_create_partition(now() - interval '400 days')")
+      .compose(x -> pgClient.execute("INSERT INTO event_logs (id, jsonb, event_time) "
+          + "VALUES ($1, $2, now() - interval '400 days'), ($3, $4, now())",
+          Tuple.of(oldId, new JsonObject().put("id", oldId.toString()),
+              newId, new JsonObject().put("id", newId.toString()))))
+      .compose(x -> EventLogPartitions.maintainAll(vertx))
+      .compose(x -> pgClient.execute("SELECT count(*) FROM event_logs"))
+      .map(rowSet -> {
+        assertEquals(2L, (long) rowSet.iterator().next().getLong(0));
+        return null;
+      })
+      .compose(x -> EventLogPartitions.setRetentionDays(vertx, TENANT_ID, 30))
+      .compose(x -> pgClient.execute("SELECT id FROM event_logs"))
+      .map(rowSet -> {
+        assertEquals(1, rowSet.size());
+        assertEquals(newId, rowSet.iterator().next().getUUID(0));
+        return null;
+      })
+      .compose(x -> pgClient.execute("SELECT to_regclass('event_logs_' || "
+          + "to_char((now() - interval '400 days') AT TIME ZONE 'UTC', 'YYYYMM'))::text"))
+      .map(rowSet -> {
+        assertEquals(null, rowSet.iterator().next().getString(0));
+        return null;
+      })
+      .eventually(() -> EventLogPartitions.setRetentionDays(vertx, TENANT_ID, null))
+      .onComplete(context.asyncAssertSuccess());
+  }
+
   private Response requestPostLogEvent(JsonObject expectedEntity, String okapiUrl) {
     return request.body(expectedEntity.toString())
       .header(new Header(XOkapiHeaders.URL, okapiUrl))
@@ -237,6 +418,20 @@ public class LogEventsApiTest {
       .get(restPath);
   }
 
+  private Response requestGetLogEvent(String okapiUrl, String queryString) {
+    return request
+      .header(new Header(XOkapiHeaders.URL, okapiUrl))
+      .when()
+      .get(restPath + "?" + queryString);
+  }
+
+  private Response requestExportLogEvents(String okapiUrl, String queryString) {
+    return request
+      .header(new Header(XOkapiHeaders.URL, okapiUrl))
+      .when()
+      .get(restPath + "/export?" + queryString);
+  }
+
   private Response requestDeleteLogEventById(String userId, String okapiUrl) {
     return request
       .header(new Header(XOkapiHeaders.URL, okapiUrl))
@@ -9,6 +9,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import org.folio.okapi.common.XOkapiHeaders;
 import org.folio.postgres.testing.PostgresTesterContainer;
@@ -18,6 +19,7 @@ import org.folio.rest.jaxrs.model.TenantAttributes;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.tools.utils.NetworkUtils;
+import org.folio.util.ConfigCache;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -111,6 +113,7 @@ public class LoginAttemptsTest {
     MODULE_SPECIFIC_ARGS.clear();
     MODULE_SPECIFIC_ARGS.putAll(moduleArgs);
     Mocks.resetConfigs();
+    ConfigCache.get(vertx).invalidateTenant(TENANT_DIKU);
     Async async = context.async();
     PostgresClient pgClient = PostgresClient.getInstance(vertx, TENANT_DIKU);
     pgClient.startTx(beginTx ->
@@ -284,6 +287,93 @@ public class LoginAttemptsTest {
       .body("attemptCount", is(0));
   }
 
+  @Test
+  public void testSuccessfulLoginWithoutFailedAttempts() {
+    RestAssured.given()
+      .spec(spec)
+      .body(credsObject8.encode())
+      .when()
+      .post(CRED_PATH)
+      .then()
+      .statusCode(201);
+
+    RestAssured.given()
+      .spec(spec)
+      .body(credsObject8.encode())
+      .when()
+      .post(LOGIN_PATH)
+      .then()
+      .statusCode(201);
+
+    String lastAttempt = RestAssured.given()
+      .spec(spec)
+      .when()
+      .get(ATTEMPTS_PATH + "/" + adminId)
+      .then()
+      .statusCode(200)
+      .body("attemptCount", is(0))
+      .extract().path("lastAttempt");
+
+    RestAssured.given()
+      .spec(spec)
+      .body(credsObject8.encode())
+      .when()
+      .post(LOGIN_PATH)
+      .then()
+      .statusCode(201);
+
+    // the record with a zero count has not been written again
+    RestAssured.given()
+      .spec(spec)
+      .when()
+      .get(ATTEMPTS_PATH + "/" + adminId)
+      .then()
+      .statusCode(200)
+      .body("attemptCount", is(0))
+      .body("lastAttempt", is(lastAttempt));
+  }
+
+  @Test
+  public void testWindowExpired() throws Exception {
+    RestAssured.given()
+      .spec(spec)
+      .body(credsObject8.encode())
+      .when()
+      .post(CRED_PATH)
+      .then()
+      .statusCode(201);
+
+    RestAssured.given()
+      .spec(spec)
+      .body(credsObject8Fail.encode())
+      .when()
+      .post(LOGIN_PATH)
+      .then()
+      .statusCode(422);
+
+    // login.fail.timeout is 2 minutes
+    PostgresClient.getInstance(vertx, TENANT_DIKU)
+      .execute("UPDATE auth_attempts SET window_start = now() - interval '3 minutes'")
+      .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+    // a new window, otherwise the second failed login would block the user
+    RestAssured.given()
+      .spec(spec)
+      .body(credsObject8Fail.encode())
+      .when()
+      .post(LOGIN_PATH)
+      .then()
+      .statusCode(422);
+
+    RestAssured.given()
+      .spec(spec)
+      .when()
+      .get(ATTEMPTS_PATH + "/" + adminId)
+      .then()
+      .statusCode(200)
+      .body("attemptCount", is(1));
+  }
+
   @Test
   public void testConfiguration() {
     MODULE_SPECIFIC_ARGS.remove(LOGIN_ATTEMPTS_CODE);
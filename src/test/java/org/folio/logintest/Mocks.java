@@ -375,6 +375,8 @@ public class Mocks extends AbstractVerticle {
         responseJson = configs.get(LOGIN_ATTEMPTS_CODE);
       } else if (query.equals(queryString + LOGIN_ATTEMPTS_TIMEOUT_CODE)) {
         responseJson = configs.get(LOGIN_ATTEMPTS_TIMEOUT_CODE);
+      } else if (query.startsWith(queryString) && configs.containsKey(query.substring(queryString.length()))) {
+        responseJson = configs.get(query.substring(queryString.length()));
       } else {
         responseJson = new JsonObject()
           .put("configs", new JsonArray())
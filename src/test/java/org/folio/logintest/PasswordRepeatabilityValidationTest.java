@@ -44,6 +44,7 @@ public class PasswordRepeatabilityValidationTest {
   private static AuthUtil authUtil = new AuthUtil();
 
   private static final String USER_ID = "e341d8bb-5d5d-4ce8-808c-b2e9bbfb4a1a";
+  private static final String USER_ID_HISTORY_ONLY = "7a4e1b3c-2f60-4d8e-9c15-0b6d3e8f2a91";
   private static final String TENANT = "diku";
   private static final String TABLE_NAME_CREDENTIALS = "auth_credentials";
   private static final String TABLE_NAME_CREDENTIALS_HISTORY = "auth_credentials_history";
@@ -80,6 +81,8 @@ public class PasswordRepeatabilityValidationTest {
         .compose(x -> TestUtil.postSync(ta, TENANT, port, vertx))
         .compose(x -> fillInCredentialsHistory())
         .compose(x -> saveCredential())
+        .compose(x -> saveCredentialsHistoryObject(
+            buildCredentialsHistoryObject(OLD_PASSWORD, new Date()).withUserId(USER_ID_HISTORY_ONLY)))
         .onComplete(context.asyncAssertSuccess());
   }
 
@@ -147,6 +150,19 @@ public class PasswordRepeatabilityValidationTest {
       .body(RESULT_JSON_PATH, is(VALID));
   }
 
+  @Test
+  public void testHistoryWithoutCredential() {
+    RestAssured.given()
+      .spec(spec)
+      .header(XOkapiHeaders.USER_ID, USER_ID_HISTORY_ONLY)
+      .body(buildPasswordEntity(OLD_PASSWORD, USER_ID_HISTORY_ONLY))
+      .when()
+      .post(PASSWORD_REAPITABILITY_VALIDATION_PATH)
+      .then()
+      .statusCode(200)
+      .body(RESULT_JSON_PATH, is(INVALID));
+  }
+
   private static Future<Void> fillInCredentialsHistory() {
     Promise<CompositeFuture> promise = Promise.promise();
 
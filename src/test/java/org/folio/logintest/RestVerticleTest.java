@@ -34,7 +34,10 @@ import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.tools.utils.NetworkUtils;
 import org.folio.services.impl.PasswordStorageServiceImpl;
+import org.folio.util.ConfigCache;
+import org.folio.util.PasswordHashers;
 import org.folio.util.PercentCodec;
+import org.folio.util.WebClientFactory;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Rule;
@@ -46,11 +49,14 @@ import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
 import io.vertx.core.MultiMap;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.sqlclient.Tuple;
 
 @RunWith(VertxUnitRunner.class)
 public class RestVerticleTest {
@@ -244,6 +250,73 @@ public class RestVerticleTest {
         .onComplete(context.asyncAssertSuccess());
   }
 
+  @Test
+  public void testAuthnCredentialsTenantHashProfile(TestContext context) {
+    String profile = "PBKDF2WithHmacSHA256:1000:256";
+    Mocks.setConfig(PasswordHashers.HASH_PROFILE_CODE, new JsonObject()
+        .put("configs", new JsonArray().add(new JsonObject().put("value", profile)))
+        .put("totalRecords", 1));
+    ConfigCache.get(vertx).invalidateTenant("diku");
+    doRequest(vertx, credentialsUrl, HttpMethod.POST, headers,
+        new JsonObject()
+            .put("username", "gollum")
+            .put("userId", gollumId)
+            .put("password", "12345")
+            .encode(),
+        201, "Add credentials with the tenant hash profile")
+        .compose(x -> PostgresClient.getInstance(vertx, "diku")
+            .execute("SELECT jsonb->>'hashAlgorithm' FROM auth_credentials WHERE jsonb->>'userId' = $1",
+                Tuple.of(gollumId)))
+        .onComplete(x -> {
+          Mocks.removeConfig(PasswordHashers.HASH_PROFILE_CODE);
+          ConfigCache.get(vertx).invalidateTenant("diku");
+        })
+        .onComplete(context.asyncAssertSuccess(rowSet -> {
+          context.assertEquals(1, rowSet.size());
+          context.assertEquals(profile, rowSet.iterator().next().getString(0));
+        }));
+  }
+
+  @Test
+  public void testAuthnCredentialsBatch(TestContext context) {
+    String body = String.join("\n",
+        new JsonObject().put("userId", gollumId).put("password", "12345").encode(),
+        new JsonObject().put("userId", gollumId).put("password", "54321").encode(),
+        "",
+        "not json",
+        new JsonObject().put("userId", sarumanId.toUpperCase()).put("password", "12345").encode(),
+        new JsonObject().put("userId", UUID.randomUUID().toString()).put("password", "").encode());
+    WebClientFactory.getWebClient(vertx).postAbs(credentialsUrl + "/batch")
+        .putHeader(XOkapiHeaders.TENANT, "diku")
+        .putHeader(XOkapiHeaders.URL, okapiUrl)
+        .putHeader("content-type", "application/octet-stream")
+        .sendBuffer(Buffer.buffer(body + "\n"))
+        .compose(response -> {
+          context.assertEquals(200, response.statusCode(), response.bodyAsString());
+          context.assertEquals("application/x-ndjson", response.getHeader("content-type"));
+          String[] lines = response.bodyAsString().split("\n");
+          context.assertEquals(5, lines.length, response.bodyAsString());
+          assertBatchResult(context, lines[0], 1, gollumId, 201);
+          assertBatchResult(context, lines[1], 2, gollumId, 422);
+          assertBatchResult(context, lines[2], 4, null, 400);
+          assertBatchResult(context, lines[3], 5, sarumanId, 201);
+          context.assertEquals(422, new JsonObject(lines[4]).getInteger("status"));
+          return PostgresClient.getInstance(vertx, "diku")
+              .execute("SELECT jsonb->>'userId' FROM auth_credentials WHERE jsonb->>'hash' <> '' ORDER BY 1");
+        })
+        .onComplete(context.asyncAssertSuccess(rowSet -> {
+          context.assertEquals(2, rowSet.size());
+        }));
+  }
+
+  private static void assertBatchResult(TestContext context, String line, int lineNumber, String userId,
+      int status) {
+    JsonObject result = new JsonObject(line);
+    context.assertEquals(lineNumber, result.getInteger("line"), line);
+    context.assertEquals(userId, result.getString("userId"), line);
+    context.assertEquals(status, result.getInteger("status"), line);
+  }
+
   @Test
   public void testAuthnLoginNoOkapiUrl(TestContext context) {
     MultiMap testHeaders = MultiMap.caseInsensitiveMultiMap();
@@ -153,6 +153,32 @@ public class UpdateCredentialsHistoryTest {
         .onComplete(context.asyncAssertSuccess(any -> context.assertFalse(any)));
   }
 
+  @Test
+  public void testHistoryIsTrimmedToPwdHistNumberMinusOne(TestContext context) {
+    UpdateCredentials entity = new UpdateCredentials()
+      .withUserId(gollumId);
+    String password = INITIAL_PASSWORD;
+
+    // more rotations than the history holds, each one trims it
+    for (int i = 0; i < DEFAULT_PASSWORDS_HISTORY_NUMBER + 2; i++) {
+      String newPassword = PASSWORD_TEMPLATE + i;
+      RestAssured.given()
+        .spec(spec)
+        .body(JsonObject.mapFrom(entity
+          .withPassword(password)
+          .withNewPassword(newPassword)).toString())
+        .when()
+        .post("/authn/update")
+        .then()
+        .statusCode(HttpStatus.SC_NO_CONTENT);
+      password = newPassword;
+    }
+
+    pgClient.get(TABLE_NAME_CRED_HIST, CredentialsHistory.class, new Criterion(userIdCrit), false)
+        .onComplete(context.asyncAssertSuccess(results ->
+          context.assertEquals(DEFAULT_PASSWORDS_HISTORY_NUMBER - 1, results.getResults().size())));
+  }
+
   private Future<Boolean> isInitialPasswordRemovedFromHistory() {
     return pgClient.get(TABLE_NAME_CRED_HIST, CredentialsHistory.class, new Criterion(userIdCrit), false)
         .map(result -> {
@@ -0,0 +1,57 @@
+package org.folio.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.Map;
+
+import org.folio.util.LoginConfigUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.Vertx;
+
+class LocalServicesTest {
+
+  private Vertx vertx;
+
+  @BeforeEach
+  void setUp() {
+    vertx = Vertx.vertx();
+  }
+
+  @AfterEach
+  void tearDown() {
+    vertx.close();
+  }
+
+  @Test
+  void proxyIfNotRegistered() {
+    assertThat(UserService.getInstance(vertx, "foo"), is(instanceOf(UserServiceVertxEBProxy.class)));
+  }
+
+  @Test
+  void localIfRegistered() {
+    var userService = UserService.create(vertx);
+    LocalServices.register(vertx, UserService.class, userService);
+    assertThat(UserService.getInstance(vertx, "foo"), is(sameInstance(userService)));
+    var otherVertx = Vertx.vertx();
+    try {
+      assertThat(UserService.getInstance(otherVertx, "foo"), is(instanceOf(UserServiceVertxEBProxy.class)));
+    } finally {
+      otherVertx.close();
+    }
+  }
+
+  @Test
+  void headersRoundTrip() {
+    var headers = LoginConfigUtils.decodeJsonHeaders(
+        LoginConfigUtils.encodeJsonHeaders(Map.of("X-Okapi-Tenant", "diku", "User-Agent", "foo")));
+    assertThat(headers.get("x-okapi-tenant"), is("diku"));
+    assertThat(headers.get("User-Agent"), is("foo"));
+    assertThat(headers.size(), is(2));
+  }
+}
@@ -0,0 +1,93 @@
+package org.folio.services.impl;
+
+import java.util.UUID;
+
+import org.folio.logintest.TestUtil;
+import org.folio.postgres.testing.PostgresTesterContainer;
+import org.folio.rest.RestVerticle;
+import org.folio.rest.jaxrs.model.TenantAttributes;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.NetworkUtils;
+import org.folio.util.SqlStatement;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * The password history statements must read auth_credentials_history through the
+ * user_id, date index; with sequential scans disabled the planner still chooses one
+ * if no index fits.
+ */
+@RunWith(VertxUnitRunner.class)
+public class CredentialsHistoryIndexTest {
+
+  private static final String TENANT_ID = "diku";
+  private static final String SCHEMA = PostgresClient.convertToPsqlStandard(TENANT_ID);
+  private static final String HISTORY_INDEX = "auth_credentials_history_user_id_date_idx";
+  private static final String HISTORY_SEQ_SCAN = "Seq Scan on auth_credentials_history";
+
+  private static Vertx vertx;
+
+  @Rule
+  public Timeout timeout = Timeout.seconds(200);
+
+  @BeforeClass
+  public static void setUpClass(final TestContext context) {
+    vertx = Vertx.vertx();
+    int port = NetworkUtils.nextFreePort();
+
+    PostgresClient.setPostgresTester(new PostgresTesterContainer());
+    PostgresClient.getInstance(vertx);
+
+    DeploymentOptions restDeploymentOptions = new DeploymentOptions()
+        .setConfig(new JsonObject().put("http.port", port));
+
+    TenantAttributes ta = new TenantAttributes().withModuleTo("mod-login-1.1.0");
+    vertx.deployVerticle(RestVerticle.class.getName(), restDeploymentOptions)
+        .compose(res -> TestUtil.postSync(ta, TENANT_ID, port, vertx))
+        .onComplete(context.asyncAssertSuccess());
+  }
+
+  private Future<String> explain(String sql, Tuple params) {
+    return PostgresClient.getInstance(vertx, TENANT_ID)
+        .withTrans(conn -> conn.execute("SET LOCAL enable_seqscan = off")
+            .compose(x -> conn.execute("EXPLAIN " + sql, params)))
+        .map(rowSet -> {
+          StringBuilder plan = new StringBuilder();
+          for (Row row : rowSet) {
+            plan.append(row.getString(0)).append('\n');
+          }
+          return plan.toString();
+        });
+  }
+
+  private static void assertIndexScan(TestContext context, String plan) {
+    context.assertTrue(plan.contains(HISTORY_INDEX), plan);
+    context.assertFalse(plan.contains(HISTORY_SEQ_SCAN), plan);
+  }
+
+  @Test
+  public void selectCredAndCredHistory(TestContext context) {
+    explain(SqlStatement.CREDENTIAL_AND_HISTORY.sql(SCHEMA),
+        Tuple.of(UUID.randomUUID().toString(), 9))
+      .onComplete(context.asyncAssertSuccess(plan -> assertIndexScan(context, plan)));
+  }
+
+  @Test
+  public void rotateCred(TestContext context) {
+    explain(SqlStatement.CREDENTIAL_ROTATE.sql(SCHEMA),
+        Tuple.of(UUID.randomUUID().toString(), new JsonObject(), UUID.randomUUID(), new JsonObject(), 8))
+      .onComplete(context.asyncAssertSuccess(plan -> assertIndexScan(context, plan)));
+  }
+}
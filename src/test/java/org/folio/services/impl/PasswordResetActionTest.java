@@ -20,6 +20,7 @@ import org.folio.logintest.TestUtil;
 import org.folio.okapi.common.XOkapiHeaders;
 import org.folio.postgres.testing.PostgresTesterContainer;
 import org.folio.rest.RestVerticle;
+import org.folio.rest.jaxrs.model.Credential;
 import org.folio.rest.jaxrs.model.PasswordReset;
 import org.folio.rest.jaxrs.model.TenantAttributes;
 import org.folio.rest.persist.PostgresClient;
@@ -27,6 +28,7 @@ import org.folio.rest.persist.SQLConnection;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.tools.utils.NetworkUtils;
 import org.folio.util.AuthUtil;
+import org.folio.util.CredentialLookup;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Rule;
@@ -240,8 +242,9 @@ public class PasswordResetActionTest {
       .statusCode(HttpStatus.SC_NOT_FOUND);
 
     // check new user's password
-    new PasswordStorageServiceImpl(vertx).getCredByUserId(TENANT_ID, userId)
-      .onComplete(context.asyncAssertSuccess(cred -> {
+    CredentialLookup.findByUserId(vertx, TENANT_ID, userId)
+      .onComplete(context.asyncAssertSuccess(creds -> {
+        Credential cred = creds.get(0);
         assertEquals(new AuthUtil().calculateHash(newPassword, cred.getSalt()), cred.getHash());
       }));
   }
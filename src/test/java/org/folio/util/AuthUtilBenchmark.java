@@ -0,0 +1,96 @@
+package org.folio.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.lang.management.ManagementFactory;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Password hashing of the login path against the implementation before the per-thread
+ * engines: a SecretKeyFactory lookup, PBEKeySpec and hex encoding per call, and
+ * verification by comparing hex strings.
+ *
+ * <p>Logs ns/op and the bytes the current thread allocates per op. The name doesn't match
+ * the surefire includes, so it only runs on request:
+ * {@code mvn test -Dtest=AuthUtilBenchmark}.
+ */
+class AuthUtilBenchmark {
+
+  private static final int ITERATIONS = 2000;
+  private static final String PASSWORD = "Pa$$w0rd";
+  private static final HexFormat HEX = HexFormat.of().withUpperCase();
+  private static final Logger logger = LogManager.getLogger(AuthUtilBenchmark.class);
+  private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  /** consumes the results so that the JIT can't skip the work */
+  private int sink;
+
+  /**
+   * The calculateHash before the per-thread engines.
+   */
+  private static String oldCalculateHash(String password, String salt) {
+    PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), HexFormat.of().parseHex(salt),
+        AuthUtil.DEFAULT_ITERATIONS, AuthUtil.DEFAULT_KEYLENGTH);
+    try {
+      SecretKeyFactory keyFactory = SecretKeyFactory.getInstance(AuthUtil.DEFAULT_ALGORITHM);
+      return HEX.formatHex(keyFactory.generateSecret(spec).getEncoded());
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static boolean oldVerify(String password, String salt, String hash) {
+    return oldCalculateHash(password, salt).equals(hash);
+  }
+
+  private static String oldGetSalt() {
+    byte[] bytes = new byte[20];
+    new SecureRandom().nextBytes(bytes);
+    return HEX.formatHex(bytes);
+  }
+
+  private void run(String name, Supplier<Object> op) {
+    // warm up, the first calls load the providers and compile the hot paths
+    for (int i = 0; i < ITERATIONS / 10; i++) {
+      sink += op.get().hashCode();
+    }
+    long bytes = THREADS.getCurrentThreadAllocatedBytes();
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      sink += op.get().hashCode();
+    }
+    long nanos = (System.nanoTime() - start) / ITERATIONS;
+    bytes = (THREADS.getCurrentThreadAllocatedBytes() - bytes) / ITERATIONS;
+    logger.info("{}: {} ns/op, {} bytes/op", name, nanos, bytes);
+  }
+
+  @Test
+  void hashing() {
+    PasswordHasher hasher = PasswordHashers.forId(PasswordHashers.LEGACY_ID);
+    String salt = hasher.getSalt();
+    String hash = hasher.calculateHash(PASSWORD, salt);
+    assertThat(oldCalculateHash(PASSWORD, salt), is(hash));
+    assertThat(oldVerify(PASSWORD, salt, hash), is(true));
+    assertThat(hasher.verify(PASSWORD, salt, hash), is(true));
+
+    run("old calculateHash", () -> oldCalculateHash(PASSWORD, salt));
+    run("new calculateHash", () -> hasher.calculateHash(PASSWORD, salt));
+    run("old verify", () -> oldVerify(PASSWORD, salt, hash));
+    run("new verify", () -> hasher.verify(PASSWORD, salt, hash));
+    run("old getSalt", AuthUtilBenchmark::oldGetSalt);
+    run("new getSalt", hasher::getSalt);
+    logger.debug("sink {}", sink);
+  }
+}
@@ -0,0 +1,98 @@
+package org.folio.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.HexFormat;
+import java.util.List;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class AuthUtilTest {
+
+  private static final String SALT = "73616C74";  // "salt"
+
+  /**
+   * RFC 6070 test vectors.
+   */
+  @ParameterizedTest
+  @CsvSource({
+    "1,    0C60C80F961F0E71F3A9B524AF6012062FE037A6",
+    "2,    EA6C014DC72D6F8CCD1ED92ACE1D41F0D8DE8957",
+    "4096, 4B007901B765489ABEAD49D926F721D065A429C1",
+  })
+  void rfc6070(int iterations, String expected) {
+    assertThat(new AuthUtil("PBKDF2WithHmacSHA1", iterations, 160).calculateHash("password", SALT), is(expected));
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "PBKDF2WithHmacSHA1,   1000, 160, secret",
+    "PBKDF2WithHmacSHA1,   1000, 160, ''",
+    "PBKDF2WithHmacSHA1,   1000, 400, pässwörd€",
+    "PBKDF2WithHmacSHA256, 20,   256, secret",
+    "PBKDF2WithHmacSHA512, 20,   512, secret",
+  })
+  void sameAsSecretKeyFactory(String algorithm, int iterations, int keyLength, String password) throws Exception {
+    var authUtil = new AuthUtil(algorithm, iterations, keyLength);
+    var salt = authUtil.getSalt();
+    var spec = new PBEKeySpec(password.toCharArray(), HexFormat.of().parseHex(salt), iterations, keyLength);
+    var expected = HexFormat.of().withUpperCase()
+        .formatHex(SecretKeyFactory.getInstance(algorithm).generateSecret(spec).getEncoded());
+    assertThat(authUtil.calculateHash(password, salt), is(expected));
+    // again to check reuse of the thread's engine
+    assertThat(authUtil.calculateHash(password, salt), is(expected));
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "secret, false, true",
+    "secret, true,  true",
+    "Secret, false, false",
+    "'',     false, false",
+  })
+  void verify(String password, boolean lowerCaseHash, boolean expected) {
+    var authUtil = new AuthUtil();
+    var salt = authUtil.getSalt();
+    var hash = authUtil.calculateHash("secret", salt);
+    if (lowerCaseHash) {
+      hash = hash.toLowerCase();
+    }
+    assertThat(authUtil.verify(password, salt, hash), is(expected));
+  }
+
+  @ParameterizedTest
+  @CsvSource({ "''", "ABC", "XYZ0", "0C60C80F961F0E71F3A9B524AF6012062FE037" })
+  void verifyInvalidHash(String hash) {
+    assertThat(new AuthUtil().verify("password", SALT, hash), is(false));
+  }
+
+  @Test
+  void verifyAny() {
+    var authUtil = new AuthUtil();
+    var salt = authUtil.getSalt();
+    var hash = authUtil.calculateHash("secret", salt);
+    assertThat(authUtil.verifyAny("secret", salt, List.of("XYZ0", authUtil.calculateHash("other", salt), hash)), is(true));
+    assertThat(authUtil.verifyAny("Secret", salt, List.of("XYZ0", hash)), is(false));
+    assertThat(authUtil.verifyAny("secret", salt, List.of()), is(false));
+  }
+
+  @Test
+  void lowerCaseSalt() {
+    var authUtil = new AuthUtil();
+    assertThat(authUtil.calculateHash("secret", "abcdef"), is(authUtil.calculateHash("secret", "ABCDEF")));
+  }
+
+  @Test
+  void getSalt() {
+    var authUtil = new AuthUtil();
+    var salt = authUtil.getSalt();
+    assertThat(salt.matches("[0-9A-F]{40}"), is(true));
+    assertThat(authUtil.getSalt(), is(not(salt)));
+  }
+}
@@ -0,0 +1,91 @@
+package org.folio.util;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
+
+class ConfigCacheTest {
+
+  private static final JsonObject VALUE = new JsonObject().put("configs", "a");
+  private static final JsonObject VALUE2 = new JsonObject().put("configs", "b");
+
+  @AfterEach
+  void tearDown() {
+    MODULE_SPECIFIC_ARGS.remove("cache.configurations.ttl");
+  }
+
+  @Test
+  void cached() {
+    var cache = new ConfigCache();
+    var count = new AtomicInteger();
+    for (int i = 0; i < 3; i++) {
+      Future<JsonObject> future = cache.get("diku", "q", () -> {
+        count.incrementAndGet();
+        return Future.succeededFuture(VALUE);
+      });
+      assertThat(future.result(), is(sameInstance(VALUE)));
+    }
+    assertThat(count.get(), is(1));
+  }
+
+  @Test
+  void coalesced() {
+    var cache = new ConfigCache();
+    var count = new AtomicInteger();
+    Promise<JsonObject> promise = Promise.promise();
+    Future<JsonObject> first = cache.get("diku", "q", () -> {
+      count.incrementAndGet();
+      return promise.future();
+    });
+    Future<JsonObject> second = cache.get("diku", "q", () -> {
+      count.incrementAndGet();
+      return Future.succeededFuture(VALUE2);
+    });
+    Future<JsonObject> otherTenant = cache.get("other", "q", () -> {
+      count.incrementAndGet();
+      return Future.succeededFuture(VALUE2);
+    });
+    assertThat(second.isComplete(), is(false));
+    assertThat(otherTenant.result(), is(sameInstance(VALUE2)));
+    promise.complete(VALUE);
+    assertThat(first.result(), is(sameInstance(VALUE)));
+    assertThat(second.result(), is(sameInstance(VALUE)));
+    assertThat(count.get(), is(2));
+  }
+
+  @Test
+  void staleOnError() {
+    MODULE_SPECIFIC_ARGS.put("cache.configurations.ttl", "0");
+    var cache = new ConfigCache();
+    assertThat(cache.get("diku", "q", () -> Future.failedFuture("down")).failed(), is(true));
+    assertThat(cache.get("diku", "q", () -> Future.succeededFuture(VALUE)).result(), is(sameInstance(VALUE)));
+    assertThat(cache.get("diku", "q", () -> Future.failedFuture("down")).result(), is(sameInstance(VALUE)));
+    assertThat(cache.get("diku", "q", () -> Future.succeededFuture(VALUE2)).result(), is(sameInstance(VALUE2)));
+    assertThat(cache.get("diku", "q", () -> {
+      throw new IllegalStateException("bug");
+    }).result(), is(sameInstance(VALUE2)));
+
+    cache.invalidateTenant("diku");
+    assertThat(cache.get("diku", "q", () -> Future.failedFuture("down")).failed(), is(true));
+  }
+
+  @Test
+  void invalidate() {
+    var cache = new ConfigCache();
+    cache.get("diku", "q", () -> Future.succeededFuture(VALUE));
+    cache.invalidate("diku", "q");
+    assertThat(cache.get("diku", "q", () -> Future.succeededFuture(VALUE2)).result(), is(sameInstance(VALUE2)));
+    cache.invalidate("diku", "q");
+    assertThat(cache.get("diku", "q", () -> Future.failedFuture("down")).failed(), is(true));
+  }
+}
@@ -0,0 +1,40 @@
+package org.folio.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.folio.util.CredentialBatch.Record;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class CredentialBatchTest {
+
+  private static final String USER_ID = "4a0e9c52-0f4e-4d0b-9c3a-2d1a6b7e8f90";
+
+  @Test
+  void parse() {
+    Record record = CredentialBatch.parse(3, "{\"userId\": \"" + USER_ID.toUpperCase() + "\", \"password\": \"x\"}");
+    assertThat(record.line, is(3));
+    assertThat(record.userId, is(USER_ID));
+    assertThat(record.password, is("x"));
+    assertThat(record.status, is(0));
+  }
+
+  @ParameterizedTest
+  @CsvSource(delimiter = '|', value = {
+    "{                                               | 400",
+    "[]                                              | 400",
+    "{\"password\": \"x\"}                           | 400",
+    "{\"userId\": \"gollum\", \"password\": \"x\"}   | 400",
+    "{\"userId\": 5, \"password\": \"x\"}            | 400",
+    "{\"userId\": \"" + USER_ID + "\"}               | 422",
+    "{\"userId\": \"" + USER_ID + "\", \"password\": \"\"} | 422",
+  })
+  void parseInvalid(String text, int status) {
+    Record record = CredentialBatch.parse(1, text);
+    assertThat(record.status, is(status));
+    assertThat(record.password, is(nullValue()));
+  }
+}
@@ -0,0 +1,24 @@
+package org.folio.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class CredentialLookupTest {
+
+  @ParameterizedTest
+  @CsvSource({
+    "00000000-0000-0000-0000-000000000000, true",
+    "4A0E9C52-0F4E-4D0B-9C3A-2D1A6B7E8F90, true",
+    "4a0e9c52-0f4e-4d0b-9c3a-2d1a6b7e8f90, true",
+    "1-1-1-1-1,                            false",
+    "4a0e9c52-0f4e-4d0b-9c3a-2d1a6b7e8f9,  false",
+    "user1,                                false",
+    "'',                                   false",
+  })
+  void isUuid(String userId, boolean expected) {
+    assertThat(CredentialLookup.isUuid(userId), is(expected));
+  }
+}
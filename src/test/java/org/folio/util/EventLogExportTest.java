@@ -0,0 +1,49 @@
+package org.folio.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.folio.util.EventLogExport.Format;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.buffer.Buffer;
+
+class EventLogExportTest {
+
+  private static String csv(String... values) {
+    Buffer buffer = Buffer.buffer();
+    EventLogExport.appendCsvLine(buffer, values);
+    return buffer.toString();
+  }
+
+  @Test
+  void csvLine() {
+    assertThat(csv("a", null, "", "b c"), is("a,,,b c\r\n"));
+    assertThat(csv("a,b", "say \"hi\"", "x\ny"), is("\"a,b\",\"say \"\"hi\"\"\",\"x\ny\"\r\n"));
+  }
+
+  @Test
+  void csvFormula() {
+    assertThat(csv("=1+2", "+1", "-1", "@SUM(A1)", "a=b"), is("'=1+2,'+1,'-1,'@SUM(A1),a=b\r\n"));
+    assertThat(csv("=HYPERLINK(\"http://example.com\")"), is("\"'=HYPERLINK(\"\"http://example.com\"\")\"\r\n"));
+    assertThat(csv("\tx", "\rx"), is("'\tx,\"'\rx\"\r\n"));
+  }
+
+  @Test
+  void format() {
+    assertThat(Format.parse("ndjson"), is(Format.NDJSON));
+    assertThat(Format.parse("CSV"), is(Format.CSV));
+    assertThrows(IllegalArgumentException.class, () -> Format.parse("xml"));
+  }
+
+  @Test
+  void invalidParameters() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new EventLogExport("diku", null, "2024-01-01", null, "ndjson"));
+    assertThrows(IllegalArgumentException.class,
+        () -> new EventLogExport("diku", null, null, "yesterday", "csv"));
+    assertThrows(IllegalArgumentException.class,
+        () -> new EventLogExport("diku", "cql.allRecords=1 sortBy userId", null, null, "csv"));
+  }
+}
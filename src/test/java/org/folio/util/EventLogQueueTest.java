@@ -0,0 +1,182 @@
+package org.folio.util;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+class EventLogQueueTest {
+
+  private Vertx vertx;
+
+  @AfterEach
+  void tearDown() {
+    MODULE_SPECIFIC_ARGS.remove(EventLogQueue.QUEUE_SIZE);
+    MODULE_SPECIFIC_ARGS.remove(EventLogQueue.OVERFLOW);
+    MODULE_SPECIFIC_ARGS.remove(EventLogQueue.WRITE_THROUGH_LIMIT);
+    if (vertx != null) {
+      vertx.close();
+    }
+  }
+
+  /**
+   * Queue without timer that records the batches instead of writing them.
+   */
+  static class TestQueue extends EventLogQueue {
+    final List<JsonArray> stored = new ArrayList<>();
+    Promise<Void> pending;
+
+    TestQueue(int queueSize, int batchSize, boolean dropOldest) {
+      this(queueSize, batchSize, dropOldest, 10);
+    }
+
+    TestQueue(int queueSize, int batchSize, boolean dropOldest, int writeThroughLimit) {
+      super(null, queueSize, batchSize, 0, dropOldest, writeThroughLimit);
+    }
+
+    @Override
+    Future<Void> store(String tenant, JsonArray batch) {
+      stored.add(batch);
+      if (pending != null) {
+        return pending.future();
+      }
+      return Future.succeededFuture();
+    }
+  }
+
+  private static JsonObject event(int i) {
+    return new JsonObject().put("userId", "u" + i);
+  }
+
+  @Test
+  void init() {
+    vertx = Vertx.vertx();
+    EventLogQueue.init(vertx);
+    assertThat(EventLogQueue.get(vertx), is(notNullValue()));
+    assertThat(EventLogQueue.close(vertx).succeeded(), is(true));
+    assertThat(EventLogQueue.get(vertx), is(nullValue()));
+  }
+
+  @Test
+  void disabled() {
+    MODULE_SPECIFIC_ARGS.put(EventLogQueue.QUEUE_SIZE, "0");
+    vertx = Vertx.vertx();
+    EventLogQueue.init(vertx);
+    assertThat(EventLogQueue.get(vertx), is(nullValue()));
+  }
+
+  @Test
+  void invalidOverflow() {
+    MODULE_SPECIFIC_ARGS.put(EventLogQueue.OVERFLOW, "foo");
+    vertx = Vertx.vertx();
+    assertThrows(IllegalArgumentException.class, () -> EventLogQueue.init(vertx));
+  }
+
+  @Test
+  void batchBySize() {
+    var queue = new TestQueue(100, 3, true);
+    for (int i = 0; i < 7; i++) {
+      queue.add("diku", event(i));
+    }
+    assertThat(queue.stored.size(), is(2));
+    assertThat(queue.stored.get(0).size(), is(3));
+    assertThat(queue.stored.get(0).getJsonObject(0).getString("userId"), is("u0"));
+    assertThat(queue.stored.get(0).getJsonObject(0).getString("id"), is(notNullValue()));
+    assertThat(queue.size(), is(1));
+
+    queue.flush();
+    assertThat(queue.stored.size(), is(3));
+    assertThat(queue.stored.get(2).getJsonObject(0).getString("userId"), is("u6"));
+    assertThat(queue.size(), is(0));
+    assertThat(queue.getQueued(), is(7L));
+  }
+
+  @Test
+  void tenants() {
+    var queue = new TestQueue(100, 10, true);
+    queue.add("diku", event(1));
+    queue.add("other", event(2));
+    queue.flush();
+    assertThat(queue.stored.size(), is(2));
+  }
+
+  @Test
+  void oneInsertAtATime() {
+    var queue = new TestQueue(100, 2, true);
+    queue.pending = Promise.promise();
+    for (int i = 0; i < 5; i++) {
+      queue.add("diku", event(i));
+    }
+    assertThat(queue.stored.size(), is(1));
+    Future<Void> flushed = queue.flush();
+    assertThat(flushed.isComplete(), is(false));
+
+    var first = queue.pending;
+    queue.pending = null;
+    first.complete();
+    assertThat(flushed.succeeded(), is(true));
+    assertThat(queue.stored.size(), is(3));
+    assertThat(queue.size(), is(0));
+  }
+
+  @Test
+  void dropOldest() {
+    var queue = new TestQueue(2, 10, true);
+    for (int i = 0; i < 4; i++) {
+      queue.add("diku", event(i));
+    }
+    assertThat(queue.getDropped(), is(2L));
+    queue.flush();
+    assertThat(queue.stored.size(), is(1));
+    assertThat(queue.stored.get(0).getJsonObject(0).getString("userId"), is("u2"));
+    assertThat(queue.stored.get(0).getJsonObject(1).getString("userId"), is("u3"));
+  }
+
+  @Test
+  void writeThrough() {
+    var queue = new TestQueue(2, 10, false);
+    for (int i = 0; i < 4; i++) {
+      queue.add("diku", event(i));
+    }
+    assertThat(queue.getDropped(), is(0L));
+    assertThat(queue.stored.size(), is(2));
+    assertThat(queue.stored.get(0).getJsonObject(0).getString("userId"), is("u2"));
+    assertThat(queue.size(), is(2));
+    assertThat(queue.getOverflow(), is(EventLogQueue.WRITE_THROUGH));
+  }
+
+  @Test
+  void writeThroughLimit() {
+    var queue = new TestQueue(2, 10, false, 1);
+    queue.add("diku", event(0));
+    queue.add("diku", event(1));
+    queue.pending = Promise.promise();
+    queue.add("diku", event(2));
+    queue.add("diku", event(3));
+    assertThat(queue.stored.size(), is(1));
+    assertThat(queue.stored.get(0).getJsonObject(0).getString("userId"), is("u2"));
+    assertThat(queue.getDropped(), is(1L));
+
+    queue.pending.complete();
+    queue.pending = null;
+    queue.add("diku", event(4));
+    assertThat(queue.stored.size(), is(2));
+    assertThat(queue.stored.get(1).getJsonObject(0).getString("userId"), is("u4"));
+    assertThat(queue.getDropped(), is(1L));
+    assertThat(queue.size(), is(2));
+  }
+}
@@ -0,0 +1,61 @@
+package org.folio.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+
+import org.folio.rest.jaxrs.model.LogEvent.EventType;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.json.JsonObject;
+
+class EventLogTypesTest {
+
+  private static final String KEY = "/configurations/entries?query=module==EVENT_LOG";
+
+  private final ConfigCache configCache = new ConfigCache();
+  private final EventLogTypes eventLogTypes = new EventLogTypes(configCache);
+
+  private JsonObject lookup(String tenant) {
+    var configs = new JsonObject();
+    configCache.put(tenant, KEY, configs);
+    return configs;
+  }
+
+  @Test
+  void unknownTenant() {
+    assertThat(eventLogTypes.isEnabled("diku", EventType.USER_BLOCK), is(true));
+  }
+
+  @Test
+  void enabledTypes() {
+    eventLogTypes.update("diku", KEY, lookup("diku"), true, List.of("STATUS", "USER_BLOCK", "FOO"));
+    assertThat(eventLogTypes.isEnabled("diku", EventType.USER_BLOCK), is(true));
+    assertThat(eventLogTypes.isEnabled("diku", EventType.FAILED_LOGIN_ATTEMPT), is(false));
+    assertThat(eventLogTypes.isEnabled("other", EventType.FAILED_LOGIN_ATTEMPT), is(true));
+  }
+
+  @Test
+  void disabled() {
+    eventLogTypes.update("diku", KEY, lookup("diku"), false, List.of("USER_BLOCK"));
+    assertThat(eventLogTypes.isEnabled("diku", EventType.USER_BLOCK), is(false));
+  }
+
+  @Test
+  void refresh() {
+    eventLogTypes.update("diku", KEY, lookup("diku"), false, List.of());
+    configCache.invalidateTenant("diku");
+    // a single call does the lookup, the others use the previous result
+    assertThat(eventLogTypes.isEnabled("diku", EventType.USER_BLOCK), is(true));
+    assertThat(eventLogTypes.isEnabled("diku", EventType.USER_BLOCK), is(false));
+
+    eventLogTypes.refreshFailed("diku");
+    assertThat(eventLogTypes.isEnabled("diku", EventType.USER_BLOCK), is(true));
+    assertThat(eventLogTypes.isEnabled("diku", EventType.USER_BLOCK), is(false));
+
+    eventLogTypes.update("diku", KEY, lookup("diku"), true, List.of("USER_BLOCK"));
+    assertThat(eventLogTypes.isEnabled("diku", EventType.USER_BLOCK), is(true));
+    assertThat(eventLogTypes.isEnabled("diku", EventType.PASSWORD_RESET), is(false));
+  }
+}
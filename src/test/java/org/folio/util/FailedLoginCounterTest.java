@@ -0,0 +1,160 @@
+package org.folio.util;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.folio.logintest.TestUtil;
+import org.folio.postgres.testing.PostgresTesterContainer;
+import org.folio.rest.RestVerticle;
+import org.folio.rest.jaxrs.model.LoginAttempts;
+import org.folio.rest.jaxrs.model.TenantAttributes;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.NetworkUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Tuple;
+
+class FailedLoginCounterTest {
+
+  private static final long WINDOW = 600_000;
+
+  private Vertx vertx;
+
+  @AfterEach
+  void tearDown() {
+    MODULE_SPECIFIC_ARGS.remove(FailedLoginCounter.FLUSH_INTERVAL);
+    if (vertx != null) {
+      vertx.close();
+    }
+  }
+
+  private FailedLoginCounter counter() {
+    MODULE_SPECIFIC_ARGS.put(FailedLoginCounter.FLUSH_INTERVAL, "3600000");
+    vertx = Vertx.vertx();
+    FailedLoginCounter.init(vertx);
+    return FailedLoginCounter.get(vertx);
+  }
+
+  @Test
+  void disabled() {
+    vertx = Vertx.vertx();
+    FailedLoginCounter.init(vertx);
+    assertThat(FailedLoginCounter.get(vertx), is(nullValue()));
+  }
+
+  @Test
+  void count() {
+    var counter = counter();
+    var loads = new AtomicInteger();
+    for (int i = 1; i <= 3; i++) {
+      var count = counter.add("diku", "u1", WINDOW, 5, () -> {
+        loads.incrementAndGet();
+        return Future.succeededFuture(null);
+      });
+      assertThat(count.result(), is(i));
+    }
+    assertThat(counter.add("diku", "u2", WINDOW, 5, () -> Future.succeededFuture(null)).result(), is(1));
+    assertThat(counter.add("other", "u1", WINDOW, 5, () -> Future.succeededFuture(null)).result(), is(1));
+    assertThat(loads.get(), is(1));
+    assertThat(counter.size(), is(3));
+  }
+
+  @Test
+  void limit() {
+    var counter = counter();
+    for (int i = 0; i < 10; i++) {
+      counter.add("diku", "u1", WINDOW, 3, () -> Future.succeededFuture(null));
+    }
+    assertThat(counter.add("diku", "u1", WINDOW, 3, () -> Future.succeededFuture(null)).result(), is(3));
+  }
+
+  @Test
+  void window() {
+    var counter = counter();
+    counter.add("diku", "u1", 1, 5, () -> Future.succeededFuture(null));
+    sleep(10);
+    assertThat(counter.add("diku", "u1", 1, 5, () -> Future.succeededFuture(null)).result(), is(1));
+  }
+
+  @Test
+  void storedCount() {
+    var counter = counter();
+    var recent = new LoginAttempts().withAttemptCount(2).withLastAttempt(new Date());
+    assertThat(counter.add("diku", "u1", WINDOW, 5, () -> Future.succeededFuture(recent)).result(), is(3));
+
+    var old = new LoginAttempts().withAttemptCount(2)
+        .withLastAttempt(new Date(System.currentTimeMillis() - 2 * WINDOW));
+    assertThat(counter.add("diku", "u2", WINDOW, 5, () -> Future.succeededFuture(old)).result(), is(1));
+
+    assertThat(counter.add("diku", "u3", WINDOW, 5, () -> Future.failedFuture("db down")).result(), is(1));
+  }
+
+  @Test
+  void reset() {
+    var counter = counter();
+    counter.add("diku", "u1", WINDOW, 5, () -> Future.succeededFuture(null));
+    counter.add("diku", "u1", WINDOW, 5, () -> Future.succeededFuture(null));
+    counter.reset("diku", "u1");
+    assertThat(counter.size(), is(0));
+    assertThat(counter.add("diku", "u1", WINDOW, 5, () -> Future.succeededFuture(null)).result(), is(1));
+  }
+
+  @Test
+  void flushRestartsExpiredWindow() throws Exception {
+    var counter = counter();
+    int port = NetworkUtils.nextFreePort();
+    PostgresClient.setPostgresTester(new PostgresTesterContainer());
+    var pgClient = PostgresClient.getInstance(vertx, "diku");
+    var insert = "INSERT INTO auth_attempts (id, jsonb, window_start) VALUES ($1, $2, now() - $3::interval)";
+    vertx.deployVerticle(RestVerticle.class.getName(),
+            new DeploymentOptions().setConfig(new JsonObject().put("http.port", port)))
+        .compose(x -> TestUtil.postSync(new TenantAttributes().withModuleTo("mod-login-1.1.0"), "diku", port, vertx))
+        .compose(x -> pgClient.execute(insert, Tuple.of(UUID.randomUUID(), attempts("expired", 4), "20 minutes")))
+        .compose(x -> pgClient.execute(insert, Tuple.of(UUID.randomUUID(), attempts("current", 2), "5 minutes")))
+        .toCompletionStage().toCompletableFuture().get(120, TimeUnit.SECONDS);
+
+    // the loader returns nothing so that only the stored count matters
+    counter.add("diku", "expired", WINDOW, 5, () -> Future.succeededFuture(null));
+    counter.add("diku", "current", WINDOW, 5, () -> Future.succeededFuture(null));
+    counter.flush().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+    var rows = pgClient.execute("""
+        SELECT jsonb->>'userId', (jsonb->>'attemptCount')::int, window_start > now() - interval '1 minute'
+          FROM auth_attempts ORDER BY 1
+        """).toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS).iterator();
+    var current = rows.next();
+    assertThat(current.getInteger(1), is(3));
+    assertThat(current.getBoolean(2), is(false));
+    var expired = rows.next();
+    assertThat(expired.getInteger(1), is(1));
+    assertThat(expired.getBoolean(2), is(true));
+  }
+
+  private static JsonObject attempts(String userId, int count) {
+    return JsonObject.mapFrom(new LoginAttempts()
+        .withId(UUID.randomUUID().toString())
+        .withUserId(userId)
+        .withAttemptCount(count)
+        .withLastAttempt(new Date()));
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package org.folio.util;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.Vertx;
+
+class HashExecutorTest {
+
+  private Vertx vertx;
+
+  @AfterEach
+  void tearDown() {
+    MODULE_SPECIFIC_ARGS.remove(HashExecutor.HASH_POOL_SIZE);
+    MODULE_SPECIFIC_ARGS.remove(HashExecutor.HASH_QUEUE_SIZE);
+    MODULE_SPECIFIC_ARGS.remove(HashExecutor.HASH_RETRY_AFTER);
+    if (vertx != null) {
+      vertx.close();
+    }
+  }
+
+  @Test
+  void execute() throws Exception {
+    vertx = Vertx.vertx();
+    var result = HashExecutor.get(vertx).execute(() -> "abc")
+        .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    assertThat(result, is("abc"));
+  }
+
+  @Test
+  void saturated() throws Exception {
+    MODULE_SPECIFIC_ARGS.put(HashExecutor.HASH_POOL_SIZE, "1");
+    MODULE_SPECIFIC_ARGS.put(HashExecutor.HASH_QUEUE_SIZE, "1");
+    MODULE_SPECIFIC_ARGS.put(HashExecutor.HASH_RETRY_AFTER, "7");
+    vertx = Vertx.vertx();
+    var hashExecutor = HashExecutor.get(vertx);
+    var latch = new CountDownLatch(1);
+    var running = hashExecutor.execute(() -> latch.await(5, TimeUnit.SECONDS));
+    var queued = hashExecutor.execute(() -> true);
+    var rejected = hashExecutor.execute(() -> true);
+
+    assertThat(rejected.failed(), is(true));
+    assertThat(rejected.cause(), is(instanceOf(HashExecutorSaturatedException.class)));
+    assertThat(((HashExecutorSaturatedException) rejected.cause()).getRetryAfterSeconds(), is(7));
+
+    latch.countDown();
+    assertThat(running.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS), is(true));
+    assertThat(queued.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS), is(true));
+  }
+
+  @Test
+  void anyMatch() throws Exception {
+    MODULE_SPECIFIC_ARGS.put(HashExecutor.HASH_POOL_SIZE, "1");
+    vertx = Vertx.vertx();
+    var hashExecutor = HashExecutor.get(vertx);
+    var calls = new AtomicInteger();
+    List<Callable<Boolean>> checks = List.of(
+        () -> calls.incrementAndGet() < 0,
+        () -> calls.incrementAndGet() > 0,
+        () -> calls.incrementAndGet() > 0);
+    assertThat(hashExecutor.anyMatch(checks)
+        .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS), is(true));
+    // a single thread runs the checks in order, the check after the match is skipped
+    assertThat(calls.get(), is(2));
+
+    assertThat(hashExecutor.anyMatch(List.of(() -> false, () -> false))
+        .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS), is(false));
+    assertThat(hashExecutor.anyMatch(List.of()).succeeded(), is(true));
+  }
+
+  @Test
+  void anyMatchFailure() throws Exception {
+    vertx = Vertx.vertx();
+    var hashExecutor = HashExecutor.get(vertx);
+    List<Callable<Boolean>> failing = List.of(() -> false, () -> {
+      throw new IllegalStateException("foo");
+    });
+    var future = hashExecutor.anyMatch(failing);
+    future.toCompletionStage().toCompletableFuture().handle((x, e) -> null).get(5, TimeUnit.SECONDS);
+    assertThat(future.failed(), is(true));
+
+    List<Callable<Boolean>> matching = List.of(() -> true, () -> {
+      throw new IllegalStateException("foo");
+    });
+    assertThat(hashExecutor.anyMatch(matching)
+        .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS), is(true));
+  }
+}
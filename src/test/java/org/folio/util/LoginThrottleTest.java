@@ -0,0 +1,90 @@
+package org.folio.util;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.Vertx;
+
+class LoginThrottleTest {
+
+  private Vertx vertx;
+
+  @AfterEach
+  void tearDown() {
+    MODULE_SPECIFIC_ARGS.remove(LoginThrottle.IP_RATE);
+    if (vertx != null) {
+      vertx.close();
+    }
+  }
+
+  @Test
+  void disabled() {
+    vertx = Vertx.vertx();
+    LoginThrottle.init(vertx);
+    assertThat(LoginThrottle.get(vertx), is(nullValue()));
+  }
+
+  @Test
+  void enabled() {
+    MODULE_SPECIFIC_ARGS.put(LoginThrottle.IP_RATE, "10");
+    vertx = Vertx.vertx();
+    LoginThrottle.init(vertx);
+    assertThat(LoginThrottle.get(vertx), is(notNullValue()));
+  }
+
+  @Test
+  void ipBurst() {
+    var throttle = new LoginThrottle(6, 3, 0, 0, 100);
+    for (int i = 0; i < 3; i++) {
+      assertThat(throttle.acquire("diku", "10.0.0.1", "user" + i), is(0));
+    }
+    int retryAfter = throttle.acquire("diku", "10.0.0.1", "user9");
+    // one token every 10 seconds
+    assertThat(retryAfter, is(greaterThan(0)));
+    assertThat(retryAfter, is(lessThanOrEqualTo(10)));
+    assertThat(throttle.acquire("diku", "10.0.0.2", "user9"), is(0));
+    assertThat(throttle.acquire("other", "10.0.0.1", "user9"), is(0));
+    assertThat(throttle.acquire("diku", null, "user9"), is(0));
+  }
+
+  @Test
+  void usernameBurst() {
+    var throttle = new LoginThrottle(0, 0, 60, 2, 100);
+    assertThat(throttle.acquire("diku", "10.0.0.1", "Admin"), is(0));
+    assertThat(throttle.acquire("diku", "10.0.0.2", "admin"), is(0));
+    assertThat(throttle.acquire("diku", "10.0.0.3", "ADMIN"), is(1));
+    assertThat(throttle.acquire("diku", "10.0.0.3", "other"), is(0));
+  }
+
+  @Test
+  void refill() throws InterruptedException {
+    // one token every 10 milliseconds
+    var throttle = new LoginThrottle(6000, 1, 0, 0, 100);
+    assertThat(throttle.acquire("diku", "10.0.0.1", "u"), is(0));
+    assertThat(throttle.acquire("diku", "10.0.0.1", "u"), is(1));
+    Thread.sleep(20);
+    assertThat(throttle.acquire("diku", "10.0.0.1", "u"), is(0));
+  }
+
+  @Test
+  void rejectedDoesNotConsume() {
+    var throttle = new LoginThrottle(0, 0, 60, 1, 100);
+    var ipThrottle = new LoginThrottle(60, 1, 60, 1, 100);
+    assertThat(throttle.acquire("diku", "ip", "u"), is(0));
+    for (int i = 0; i < 5; i++) {
+      assertThat(throttle.acquire("diku", "ip", "u"), is(1));
+    }
+    // a rejection by IP doesn't take a token from the username bucket
+    assertThat(ipThrottle.acquire("diku", "ip", "a"), is(0));
+    assertThat(ipThrottle.acquire("diku", "ip", "b"), is(1));
+    assertThat(ipThrottle.acquire("diku", "ip2", "b"), is(0));
+  }
+}
@@ -0,0 +1,77 @@
+package org.folio.util;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class PasswordHashersTest {
+
+  @AfterEach
+  void tearDown() {
+    MODULE_SPECIFIC_ARGS.remove(PasswordHashers.HASH_PROFILE_CODE);
+  }
+
+  @ParameterizedTest
+  @NullAndEmptySource
+  @ValueSource(strings = { " ", "PBKDF2WithHmacSHA1:1000:160" })
+  void legacy(String id) {
+    var hasher = PasswordHashers.forId(id);
+    assertThat(hasher.getId(), is(PasswordHashers.LEGACY_ID));
+    var salt = hasher.getSalt();
+    assertThat(hasher.calculateHash("secret", salt), is(new AuthUtil().calculateHash("secret", salt)));
+  }
+
+  @Test
+  void sha512() {
+    var hasher = PasswordHashers.forId("PBKDF2WithHmacSHA512:2000:512");
+    assertThat(hasher.getId(), is("PBKDF2WithHmacSHA512:2000:512"));
+    assertThat(hasher.calculateHash("secret", hasher.getSalt()).length(), is(128));
+    assertThat(PasswordHashers.forId("PBKDF2WithHmacSHA512:2000:512"), is(sameInstance(hasher)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = { "foo", "PBKDF2WithHmacSHA1:1000", "PBKDF2WithHmacFoo:1000:160",
+      "PBKDF2WithHmacSHA1:0:160", "PBKDF2WithHmacSHA1:1000:7", "PBKDF2WithHmacSHA1:x:160", "MD5:1:128" })
+  void invalid(String id) {
+    assertThrows(IllegalArgumentException.class, () -> PasswordHashers.forId(id));
+  }
+
+  @Test
+  void needsRehash() {
+    var target = PasswordHashers.forId("PBKDF2WithHmacSHA256:1000:256");
+    assertThat(PasswordHashers.needsRehash(null, target), is(true));
+    assertThat(PasswordHashers.needsRehash(PasswordHashers.LEGACY_ID, target), is(true));
+    assertThat(PasswordHashers.needsRehash("PBKDF2WithHmacSHA256:1000:256", target), is(false));
+    // never to a cheaper profile
+    assertThat(PasswordHashers.needsRehash("PBKDF2WithHmacSHA256:2000:256", target), is(false));
+    assertThat(PasswordHashers.needsRehash("PBKDF2WithHmacSHA512:1000:512", target), is(false));
+    assertThat(PasswordHashers.needsRehash("PBKDF2WithHmacSHA1:1000:8", target), is(true));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = { "PBKDF2WithHmacSHA1:1:8", "PBKDF2WithHmacSHA1:999:160", "PBKDF2WithHmacSHA256:1000:120" })
+  void belowMinimumCost(String id) {
+    assertThrows(IllegalArgumentException.class, () -> PasswordHashers.forTargetId(id));
+    // stored credentials with such a profile can still be verified
+    assertThat(PasswordHashers.forId(id).getId(), is(id));
+    MODULE_SPECIFIC_ARGS.put(PasswordHashers.HASH_PROFILE_CODE, id);
+    assertThat(PasswordHashers.getDefault().getId(), is(PasswordHashers.LEGACY_ID));
+  }
+
+  @Test
+  void getDefault() {
+    assertThat(PasswordHashers.getDefault().getId(), is(PasswordHashers.LEGACY_ID));
+    MODULE_SPECIFIC_ARGS.put(PasswordHashers.HASH_PROFILE_CODE, "PBKDF2WithHmacSHA256:1000:256");
+    assertThat(PasswordHashers.getDefault().getId(), is("PBKDF2WithHmacSHA256:1000:256"));
+    MODULE_SPECIFIC_ARGS.put(PasswordHashers.HASH_PROFILE_CODE, "invalid");
+    assertThat(PasswordHashers.getDefault().getId(), is(PasswordHashers.LEGACY_ID));
+  }
+}
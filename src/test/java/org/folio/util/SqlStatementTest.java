@@ -0,0 +1,22 @@
+package org.folio.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class SqlStatementTest {
+
+  @ParameterizedTest
+  @EnumSource(SqlStatement.class)
+  void sql(SqlStatement statement) {
+    String sql = statement.sql("diku_mod_login");
+    assertThat(sql, containsString("diku_mod_login."));
+    assertThat(sql, not(containsString("{schema}")));
+    assertThat(statement.sql("diku_mod_login"), sameInstance(sql));
+    assertThat(statement.sql("other_mod_login"), not(containsString("diku_mod_login")));
+  }
+}
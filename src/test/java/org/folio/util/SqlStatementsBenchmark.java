@@ -0,0 +1,139 @@
+package org.folio.util;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.logintest.TestUtil;
+import org.folio.postgres.testing.PostgresTesterContainer;
+import org.folio.rest.RestVerticle;
+import org.folio.rest.jaxrs.model.Credential;
+import org.folio.rest.jaxrs.model.TenantAttributes;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.persist.Criteria.Criteria;
+import org.folio.rest.persist.Criteria.Criterion;
+import org.folio.rest.persist.interfaces.Results;
+import org.folio.rest.tools.utils.NetworkUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Latency of the credential lookup of the login path, the Criteria get it used to be
+ * against the {@link SqlStatement#CREDENTIAL_BY_USER_ID} catalogue statement, on a
+ * Postgres test container. The round trip to the database varies a lot from lookup to
+ * lookup, so it logs the median and the 99th percentile rather than a mean.
+ *
+ * <p>Run it with {@code mvn test -Dtest=SqlStatementsBenchmark}; the surefire includes
+ * skip it.
+ */
+@RunWith(VertxUnitRunner.class)
+public class SqlStatementsBenchmark {
+
+  private static final String TENANT_ID = "diku";
+  private static final int ITERATIONS = 500;
+  private static final String USER_ID = UUID.randomUUID().toString();
+  private static final Logger logger = LogManager.getLogger(SqlStatementsBenchmark.class);
+
+  private static Vertx vertx;
+
+  @Rule
+  public Timeout timeout = Timeout.seconds(200);
+
+  @BeforeClass
+  public static void setUpClass(final TestContext context) {
+    vertx = Vertx.vertx();
+    int port = NetworkUtils.nextFreePort();
+
+    PostgresClient.setPostgresTester(new PostgresTesterContainer());
+    PostgresClient.getInstance(vertx);
+
+    DeploymentOptions restDeploymentOptions = new DeploymentOptions()
+        .setConfig(new JsonObject().put("http.port", port));
+
+    TenantAttributes ta = new TenantAttributes().withModuleTo("mod-login-1.1.0");
+    Credential credential = new Credential()
+        .withId(UUID.randomUUID().toString())
+        .withUserId(USER_ID)
+        .withHash("hash")
+        .withSalt("salt")
+        .withHashAlgorithm("PBKDF2WithHmacSHA1");
+    vertx.deployVerticle(RestVerticle.class.getName(), restDeploymentOptions)
+        .compose(res -> TestUtil.postSync(ta, TENANT_ID, port, vertx))
+        .compose(res -> PostgresClient.getInstance(vertx, TENANT_ID)
+            .save("auth_credentials", credential.getId(), credential))
+        .onComplete(context.asyncAssertSuccess());
+  }
+
+  @AfterClass
+  public static void tearDownClass(final TestContext context) {
+    vertx.close()
+        .onComplete(context.asyncAssertSuccess());
+  }
+
+  private static Future<Integer> criteriaGet() {
+    Criterion criterion = new Criterion(new Criteria()
+        .addField("'userId'").setOperation("=").setVal(USER_ID));
+    Promise<Results<Credential>> promise = Promise.promise();
+    PostgresClient.getInstance(vertx, TENANT_ID)
+        .get("auth_credentials", Credential.class, criterion, true, promise);
+    return promise.future().map(results -> results.getResults().size());
+  }
+
+  private static Future<Integer> statement() {
+    return SqlStatements.execute(vertx, TENANT_ID, SqlStatement.CREDENTIAL_BY_USER_ID,
+        Tuple.of(UUID.fromString(USER_ID))).map(rowSet -> rowSet.size());
+  }
+
+  /**
+   * Run the lookups one after the other and put the time of each into micros.
+   */
+  private static Future<Void> time(TestContext context, Supplier<Future<Integer>> lookup,
+      long[] micros, int i) {
+
+    if (i == micros.length) {
+      return Future.succeededFuture();
+    }
+    long start = System.nanoTime();
+    return lookup.get().compose(found -> {
+      micros[i] = (System.nanoTime() - start) / 1000;
+      context.assertEquals(1, found);
+      return time(context, lookup, micros, i + 1);
+    });
+  }
+
+  private static Future<Void> run(TestContext context, String name, Supplier<Future<Integer>> lookup) {
+    // the first lookups prepare the statements and open the connections
+    return time(context, lookup, new long[ITERATIONS / 10], 0)
+        .compose(x -> {
+          long[] micros = new long[ITERATIONS];
+          return time(context, lookup, micros, 0)
+              .onSuccess(y -> {
+                Arrays.sort(micros);
+                logger.info("{}: median {} µs, p99 {} µs per credential lookup", name,
+                    micros[ITERATIONS / 2], micros[ITERATIONS * 99 / 100]);
+              });
+        });
+  }
+
+  @Test
+  public void credentialLookup(TestContext context) {
+    run(context, "Criteria get", SqlStatementsBenchmark::criteriaGet)
+        .compose(x -> run(context, "catalogue statement", SqlStatementsBenchmark::statement))
+        .onComplete(context.asyncAssertSuccess());
+  }
+}
@@ -0,0 +1,73 @@
+package org.folio.util;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.Vertx;
+
+class TenantCacheTest {
+
+  @AfterEach
+  void tearDown() {
+    MODULE_SPECIFIC_ARGS.remove("cache.test.ttl");
+    MODULE_SPECIFIC_ARGS.remove("cache.test.size");
+  }
+
+  @Test
+  void putGetInvalidate() {
+    var cache = new TenantCache<String>("test", 60, 100);
+    cache.put("diku", "a", "1");
+    cache.put("diku", "b", "2");
+    cache.put("other", "a", "3");
+    assertThat(cache.get("diku", "a"), is("1"));
+    assertThat(cache.get("other", "a"), is("3"));
+    assertThat(cache.get("diku", "c"), is(nullValue()));
+
+    cache.invalidate("diku", "b");
+    assertThat(cache.get("diku", "b"), is(nullValue()));
+
+    cache.invalidateTenant("diku");
+    assertThat(cache.get("diku", "a"), is(nullValue()));
+    assertThat(cache.get("other", "a"), is("3"));
+    assertThat(cache.stats().hitCount(), is(3L));
+  }
+
+  @Test
+  void disabled() {
+    MODULE_SPECIFIC_ARGS.put("cache.test.ttl", "0");
+    var cache = new TenantCache<String>("test", 60, 100);
+    cache.put("diku", "a", "1");
+    assertThat(cache.get("diku", "a"), is(nullValue()));
+    assertThat(cache.getTtlSeconds(), is(0L));
+  }
+
+  @Test
+  void size() {
+    MODULE_SPECIFIC_ARGS.put("cache.test.size", "2");
+    var cache = new TenantCache<String>("test", 60, 100);
+    for (int i = 0; i < 10; i++) {
+      cache.put("diku", "k" + i, "v");
+    }
+    assertThat(cache.size() <= 2, is(true));
+  }
+
+  @Test
+  void registry() {
+    var vertx = Vertx.vertx();
+    try {
+      TenantCache<String> cache = TenantCaches.get(vertx, "test", 60, 100);
+      assertThat(TenantCaches.get(vertx, "test", 1, 1), is(sameInstance(cache)));
+      assertThat(TenantCaches.find(vertx, "test"), is(sameInstance(cache)));
+      assertThat(TenantCaches.find(vertx, "foo"), is(nullValue()));
+      assertThat(TenantCaches.getAll(vertx).size(), is(1));
+    } finally {
+      vertx.close();
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package org.folio.util;
 
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.*;
@@ -11,10 +12,12 @@ import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Context;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
 
 @RunWith(VertxUnitRunner.class)
 public class WebClientFactoryTest {
@@ -80,4 +83,39 @@ public class WebClientFactoryTest {
     });
     async.awaitSuccess();
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testStats(TestContext context) {
+    Vertx vertx = Vertx.vertx();
+    WebClientFactory.init(vertx);
+    HttpClientStats stats = WebClientFactory.getStats(vertx);
+    WebClientFactory.getWebClient(vertx).getAbs("http://invalid/").send()
+      .onComplete(context.asyncAssertFailure(e -> {
+        assertEquals(1, stats.getRequests());
+        assertEquals(1, stats.getFailures());
+        assertEquals(0, stats.getQueued());
+        assertEquals(0, stats.getInUse());
+      }));
+  }
+
+  @Test
+  public void testOptions() {
+    try {
+      MODULE_SPECIFIC_ARGS.put(WebClientFactory.HTTP_MAX_POOL_SIZE, "8");
+      MODULE_SPECIFIC_ARGS.put(WebClientFactory.HTTP_PIPELINING_LIMIT, "4");
+      MODULE_SPECIFIC_ARGS.put(WebClientFactory.HTTP_H2C, "true");
+      WebClientOptions options = WebClientFactory.createOptions();
+      assertEquals(8, options.getMaxPoolSize());
+      assertEquals(200, options.getMaxWaitQueueSize());
+      assertTrue(options.isPipelining());
+      assertEquals(4, options.getPipeliningLimit());
+      assertEquals(HttpVersion.HTTP_2, options.getProtocolVersion());
+      assertEquals(2, options.getHttp2MaxPoolSize());
+    } finally {
+      MODULE_SPECIFIC_ARGS.remove(WebClientFactory.HTTP_MAX_POOL_SIZE);
+      MODULE_SPECIFIC_ARGS.remove(WebClientFactory.HTTP_PIPELINING_LIMIT);
+      MODULE_SPECIFIC_ARGS.remove(WebClientFactory.HTTP_H2C);
+    }
+    assertFalse(WebClientFactory.createOptions().isPipelining());
+  }
+}